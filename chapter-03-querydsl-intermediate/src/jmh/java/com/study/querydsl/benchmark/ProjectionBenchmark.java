@@ -0,0 +1,108 @@
+package com.study.querydsl.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.querydsl.core.types.FactoryExpression;
+import com.querydsl.core.types.Projections;
+import com.study.querydsl.domain.QMember;
+import com.study.querydsl.dto.MemberDTO;
+import com.study.querydsl.dto.QMemberDTO;
+import com.study.querydsl.projection.FastProjections;
+
+/**
+ * DTO 프로젝션 방식별 row -> DTO 변환 비용 비교
+ * 
+ * DB 조회 비용을 빼고 프로젝션 비용만 보기 위해 하이버네이트가 넘겨주는 것과 같은 값 배열(userName, age) rows개를
+ * 각 방식의 FactoryExpression.newInstance로 변환한다 (1회 = rows개 변환)
+ * - Projections.bean / fields / constructor (리플렉션)
+ * - @QueryProjection (QMemberDTO)
+ * - FastProjections.bean / fields / constructor
+ * 
+ * 실행 : gradle :chapter-03-querydsl-intermediate:jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class ProjectionBenchmark {
+
+    private static final QMember member = QMember.member;
+
+    @Param({"1000000"})
+    int rows;
+
+    Object[][] values;
+
+    FactoryExpression<MemberDTO> bean = Projections.bean(MemberDTO.class, member.userName, member.age);
+    FactoryExpression<MemberDTO> fields = Projections.fields(MemberDTO.class, member.userName, member.age);
+    FactoryExpression<MemberDTO> constructor = Projections.constructor(MemberDTO.class, member.userName, member.age);
+    FactoryExpression<MemberDTO> queryProjection = new QMemberDTO(member.userName, member.age);
+    FactoryExpression<MemberDTO> fastBean = FastProjections.bean(MemberDTO.class, member.userName, member.age);
+    FactoryExpression<MemberDTO> fastFields = FastProjections.fields(MemberDTO.class, member.userName, member.age);
+    FactoryExpression<MemberDTO> fastConstructor = FastProjections.constructor(MemberDTO.class, member.userName, member.age);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        values = new Object[rows][];
+        for (int i = 0; i < rows; i++) {
+            values[i] = new Object[] { "member" + i, i % 100 };
+        }
+    }
+
+    private void project(FactoryExpression<MemberDTO> projection, Blackhole blackhole) {
+        for (Object[] row : values) {
+            blackhole.consume(projection.newInstance(row));
+        }
+    }
+
+    @Benchmark
+    public void projectionsBean(Blackhole blackhole) {
+        project(bean, blackhole);
+    }
+
+    @Benchmark
+    public void projectionsFields(Blackhole blackhole) {
+        project(fields, blackhole);
+    }
+
+    @Benchmark
+    public void projectionsConstructor(Blackhole blackhole) {
+        project(constructor, blackhole);
+    }
+
+    @Benchmark
+    public void queryProjection(Blackhole blackhole) {
+        project(queryProjection, blackhole);
+    }
+
+    @Benchmark
+    public void fastBean(Blackhole blackhole) {
+        project(fastBean, blackhole);
+    }
+
+    @Benchmark
+    public void fastFields(Blackhole blackhole) {
+        project(fastFields, blackhole);
+    }
+
+    @Benchmark
+    public void fastConstructor(Blackhole blackhole) {
+        project(fastConstructor, blackhole);
+    }
+}
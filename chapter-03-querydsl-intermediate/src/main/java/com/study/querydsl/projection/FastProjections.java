@@ -0,0 +1,306 @@
+package com.study.querydsl.projection;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.springframework.util.ClassUtils;
+import org.springframework.util.StringUtils;
+
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.ExpressionException;
+import com.querydsl.core.types.FactoryExpressionBase;
+import com.querydsl.core.types.Operation;
+import com.querydsl.core.types.Ops;
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.Visitor;
+
+/**
+ * 리플렉션 없이 DTO를 만드는 Projections.bean / fields / constructor
+ *
+ * Projections.bean, fields, constructor는 row마다 Method.invoke, Field.set, Constructor.newInstance를 호출한다
+ * FastProjections는 DTO 타입 + 프로퍼티 이름(또는 생성자 파라미터 타입) 조합별로 접근자를 처음 한 번만 만들고 재사용한다
+ * - bean : 기본 생성자와 setter를 LambdaMetafactory로 Supplier, BiConsumer 람다로 만든다 (일반 메소드 호출과 같은 비용)
+ * - fields : 필드 setter MethodHandle (private 필드도 접근)
+ * - constructor : 생성자 MethodHandle (primitive 파라미터에 null이 오면 기본값)
+ * 사용법은 Projections와 같다 - FastProjections.bean(MemberDTO.class, member.userName, member.age)
+ * 프로퍼티 이름이 다르면 as("name")로 별칭을 준다
+ */
+public final class FastProjections {
+
+    private static final Map<List<Object>, Function<Object[], ?>> FACTORIES = new ConcurrentHashMap<>();
+
+    private static final MethodHandle DEFAULT_IF_NULL;
+
+    static {
+        try {
+            DEFAULT_IF_NULL = MethodHandles.lookup().findStatic(FastProjections.class, "defaultIfNull", 
+                    MethodType.methodType(Object.class, Object.class, Object.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private FastProjections() { }
+
+    /**
+     * 기본 생성자로 만들고 setter로 값을 설정 (Projections.bean)
+     */
+    public static <T> FastProjection<T> bean(Class<? extends T> type, Expression<?>... exprs) {
+        List<String> names = names(exprs);
+        return new FastProjection<>(type, exprs, factory("bean", type, names, () -> beanFactory(type, names)));
+    }
+
+    /**
+     * 기본 생성자로 만들고 필드에 바로 값을 설정 (Projections.fields)
+     */
+    public static <T> FastProjection<T> fields(Class<? extends T> type, Expression<?>... exprs) {
+        List<String> names = names(exprs);
+        return new FastProjection<>(type, exprs, factory("fields", type, names, () -> fieldsFactory(type, names)));
+    }
+
+    /**
+     * 프로젝션 타입과 파라미터 타입이 맞는 생성자로 만든다 (Projections.constructor)
+     */
+    public static <T> FastProjection<T> constructor(Class<? extends T> type, Expression<?>... exprs) {
+        List<Class<?>> paramTypes = new ArrayList<>(exprs.length);
+        for (Expression<?> expr : exprs) {
+            paramTypes.add(expr.getType());
+        }
+        return new FastProjection<>(type, exprs, factory("constructor", type, paramTypes, () -> constructorFactory(type, paramTypes)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Function<Object[], T> factory(String strategy, Class<? extends T> type, List<?> signature,
+            Supplier<Function<Object[], ?>> creator) {
+        List<Object> key = Arrays.asList(strategy, type, signature);
+        return (Function<Object[], T>) FACTORIES.computeIfAbsent(key, k -> creator.get());
+    }
+
+    private static Function<Object[], ?> beanFactory(Class<?> type, List<String> names) {
+        MethodHandles.Lookup lookup = lookup(type);
+        try {
+            Supplier<?> newInstance = defaultConstructor(lookup, type);
+            List<BiConsumer<Object, Object>> setters = new ArrayList<>(names.size());
+            for (String name : names) {
+                setters.add(setter(lookup, type, name));
+            }
+            return args -> {
+                Object bean = newInstance.get();
+                for (int i = 0; i < args.length; i++) {
+                    if (args[i] != null) { // Projections.bean과 같이 null은 설정하지 않는다 (primitive 필드는 기본값 유지)
+                        setters.get(i).accept(bean, args[i]);
+                    }
+                }
+                return bean;
+            };
+        } catch (Throwable e) {
+            throw new ExpressionException("cannot create bean projection for " + type.getName() + " " + names, e);
+        }
+    }
+
+    private static Function<Object[], ?> fieldsFactory(Class<?> type, List<String> names) {
+        MethodHandles.Lookup lookup = lookup(type);
+        try {
+            Supplier<?> newInstance = defaultConstructor(lookup, type);
+            List<MethodHandle> setters = new ArrayList<>(names.size());
+            for (String name : names) {
+                Field field = findField(type, name);
+                setters.add(lookup.unreflectSetter(field)
+                                  .asType(MethodType.methodType(void.class, Object.class, Object.class)));
+            }
+            return args -> {
+                Object bean = newInstance.get();
+                for (int i = 0; i < args.length; i++) {
+                    if (args[i] != null) {
+                        invoke(setters.get(i), bean, args[i]);
+                    }
+                }
+                return bean;
+            };
+        } catch (Throwable e) {
+            throw new ExpressionException("cannot create fields projection for " + type.getName() + " " + names, e);
+        }
+    }
+
+    private static Function<Object[], ?> constructorFactory(Class<?> type, List<Class<?>> paramTypes) {
+        MethodHandles.Lookup lookup = lookup(type);
+        try {
+            MethodHandle constructor = lookup.unreflectConstructor(findConstructor(type, paramTypes));
+            Class<?>[] parameters = constructor.type().parameterArray();
+            constructor = constructor.asType(MethodType.genericMethodType(parameters.length));
+            for (int i = 0; i < parameters.length; i++) {
+                if (parameters[i].isPrimitive()) { // Projections.constructor와 같이 null이면 기본값(0, false)을 넘긴다
+                    constructor = MethodHandles.filterArguments(constructor, i, 
+                            MethodHandles.insertArguments(DEFAULT_IF_NULL, 1, Array.get(Array.newInstance(parameters[i], 1), 0)));
+                }
+            }
+            constructor = constructor.asSpreader(Object[].class, parameters.length)
+                                     .asType(MethodType.methodType(Object.class, Object[].class));
+            return args -> {
+                try {
+                    return constructor.invokeExact(args);
+                } catch (RuntimeException | Error e) {
+                    throw e;
+                } catch (Throwable e) {
+                    throw new ExpressionException(e.getMessage(), e);
+                }
+            };
+        } catch (ReflectiveOperationException e) {
+            throw new ExpressionException("cannot create constructor projection for " + type.getName() + " " + paramTypes, e);
+        }
+    }
+
+    private static Object defaultIfNull(Object value, Object defaultValue) {
+        return value != null ? value : defaultValue;
+    }
+
+    private static void invoke(MethodHandle setter, Object bean, Object value) {
+        try {
+            setter.invokeExact(bean, value);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new ExpressionException(e.getMessage(), e);
+        }
+    }
+
+    private static MethodHandles.Lookup lookup(Class<?> type) {
+        try {
+            return MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+        } catch (IllegalAccessException e) {
+            throw new ExpressionException("cannot access " + type.getName(), e);
+        }
+    }
+
+    private static Supplier<?> defaultConstructor(MethodHandles.Lookup lookup, Class<?> type) throws Throwable {
+        MethodHandle constructor = lookup.findConstructor(type, MethodType.methodType(void.class));
+        CallSite site = LambdaMetafactory.metafactory(lookup, "get",
+                                                      MethodType.methodType(Supplier.class),
+                                                      MethodType.methodType(Object.class),
+                                                      constructor,
+                                                      MethodType.methodType(type));
+        return (Supplier<?>) site.getTarget().invokeExact();
+    }
+
+    /**
+     * setUserName(String) -> (bean, value) -> ((MemberDTO) bean).setUserName((String) value)
+     * primitive 파라미터(int)는 래퍼 타입(Integer)을 받아서 언박싱한다
+     */
+    @SuppressWarnings("unchecked")
+    private static BiConsumer<Object, Object> setter(MethodHandles.Lookup lookup, Class<?> type, String name) throws Throwable {
+        Method method = findSetter(type, name);
+        MethodHandle setter = lookup.unreflect(method);
+        Class<?> paramType = ClassUtils.resolvePrimitiveIfNecessary(method.getParameterTypes()[0]);
+        CallSite site = LambdaMetafactory.metafactory(lookup, "accept",
+                                                      MethodType.methodType(BiConsumer.class),
+                                                      MethodType.methodType(void.class, Object.class, Object.class),
+                                                      setter,
+                                                      MethodType.methodType(void.class, type, paramType));
+        return (BiConsumer<Object, Object>) site.getTarget().invokeExact();
+    }
+
+    private static Method findSetter(Class<?> type, String name) throws NoSuchMethodException {
+        String setterName = "set" + StringUtils.capitalize(name);
+        for (Method method : type.getMethods()) {
+            if (method.getName().equals(setterName) && method.getParameterCount() == 1
+                && !Modifier.isStatic(method.getModifiers())) {
+                return method;
+            }
+        }
+        throw new NoSuchMethodException(type.getName() + "." + setterName);
+    }
+
+    private static Field findField(Class<?> type, String name) throws NoSuchFieldException {
+        for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+            try {
+                return current.getDeclaredField(name);
+            } catch (NoSuchFieldException e) {
+                //상위 클래스에서 찾는다
+            }
+        }
+        throw new NoSuchFieldException(type.getName() + "." + name);
+    }
+
+    private static Constructor<?> findConstructor(Class<?> type, List<Class<?>> paramTypes) throws NoSuchMethodException {
+        for (Constructor<?> constructor : type.getDeclaredConstructors()) {
+            Class<?>[] parameters = constructor.getParameterTypes();
+            if (parameters.length != paramTypes.size()) {
+                continue;
+            }
+            boolean matches = true;
+            for (int i = 0; i < parameters.length && matches; i++) {
+                matches = ClassUtils.isAssignable(parameters[i], paramTypes.get(i));
+            }
+            if (matches) {
+                return constructor;
+            }
+        }
+        throw new NoSuchMethodException(type.getName() + ".<init>" + paramTypes);
+    }
+
+    /**
+     * member.userName -> userName, member.userName.as("name") -> name
+     */
+    private static List<String> names(Expression<?>... exprs) {
+        List<String> names = new ArrayList<>(exprs.length);
+        for (Expression<?> expr : exprs) {
+            if (expr instanceof Path) {
+                names.add(((Path<?>) expr).getMetadata().getName());
+            } else if (expr instanceof Operation && ((Operation<?>) expr).getOperator() == Ops.ALIAS) {
+                names.add(((Path<?>) ((Operation<?>) expr).getArg(1)).getMetadata().getName());
+            } else {
+                throw new IllegalArgumentException("Unsupported expression " + expr + " - use as(\"property\")");
+            }
+        }
+        return names;
+    }
+
+    /**
+     * select절에 사용하는 프로젝션 - 값 배열(row)을 미리 만들어 둔 factory로 DTO로 변환한다
+     */
+    public static class FastProjection<T> extends FactoryExpressionBase<T> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final List<Expression<?>> args;
+        private final transient Function<Object[], T> factory;
+
+        private FastProjection(Class<? extends T> type, Expression<?>[] args, Function<Object[], T> factory) {
+            super(type);
+            this.args = Collections.unmodifiableList(Arrays.asList(args));
+            this.factory = factory;
+        }
+
+        @Override
+        public List<Expression<?>> getArgs() {
+            return args;
+        }
+
+        @Override
+        public T newInstance(Object... args) {
+            return factory.apply(args);
+        }
+
+        @Override
+        public <R, C> R accept(Visitor<R, C> v, C context) {
+            return v.visit(this, context);
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.study.querydsl;
 
+import static org.assertj.core.api.Assertions.assertThat;
+
 import java.util.List;
 
 import javax.persistence.EntityManager;
@@ -17,6 +19,7 @@ import com.study.querydsl.domain.Team;
 import com.study.querydsl.dto.MemberDTO;
 import com.study.querydsl.dto.QMemberDTO;
 import com.study.querydsl.dto.UserDTO;
+import com.study.querydsl.projection.FastProjections;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -209,4 +212,85 @@ class ProjectionTest {
             System.out.println("userName : " + o.getUserName() +", age : " + o.getAge());
         });
     }
+    
+    @DisplayName("FastProjections를 이용한 DTO 프로젝션 - Projections와 같은 결과")
+    @Test
+    void fastProjections() {
+        QMember member = QMember.member;
+        
+        /**
+         * DTO 타입별 setter/필드/생성자 접근자를 처음 한 번만 만들고 row마다 재사용한다 (리플렉션 호출 없음)
+         */
+        List<MemberDTO> expected = queryFactory.select(Projections.bean(MemberDTO.class, 
+                                                                        member.userName, 
+                                                                        member.age))
+                                               .from(member)
+                                               .orderBy(member.userName.asc())
+                                               .fetch();
+        
+        List<MemberDTO> bean = queryFactory.select(FastProjections.bean(MemberDTO.class, 
+                                                                        member.userName, 
+                                                                        member.age))
+                                           .from(member)
+                                           .orderBy(member.userName.asc())
+                                           .fetch();
+        
+        List<MemberDTO> fields = queryFactory.select(FastProjections.fields(MemberDTO.class, 
+                                                                            member.userName, 
+                                                                            member.age))
+                                             .from(member)
+                                             .orderBy(member.userName.asc())
+                                             .fetch();
+        
+        List<MemberDTO> constructor = queryFactory.select(FastProjections.constructor(MemberDTO.class, 
+                                                                                      member.userName, 
+                                                                                      member.age))
+                                                  .from(member)
+                                                  .orderBy(member.userName.asc())
+                                                  .fetch();
+        
+        assertThat(bean).isEqualTo(expected);
+        assertThat(fields).isEqualTo(expected);
+        assertThat(constructor).isEqualTo(expected);
+        
+        /**
+         * 프로퍼티 이름이 다르면 Projections와 같이 as로 별칭을 설정
+         */
+        List<UserDTO> users = queryFactory.select(FastProjections.fields(UserDTO.class, 
+                                                                         member.userName.as("name"), 
+                                                                         member.age))
+                                          .from(member)
+                                          .orderBy(member.userName.asc())
+                                          .fetch();
+        
+        assertThat(users).extracting("name")
+                         .containsExactly("member1", "member2", "member3", "member4", "member5", "member6", "member7");
+    }
+    
+    @DisplayName("FastProjections - null 값을 primitive 파라미터/필드에 넣으면 Projections와 같이 기본값")
+    @Test
+    void fastProjectionsNullAge() {
+        QMember member = QMember.member;
+        em.persist(new Member("noAge", null, null));
+        em.flush();
+        em.clear();
+        
+        MemberDTO expected = queryFactory.select(Projections.constructor(MemberDTO.class, member.userName, member.age))
+                                         .from(member)
+                                         .where(member.userName.eq("noAge"))
+                                         .fetchOne();
+        
+        MemberDTO constructor = queryFactory.select(FastProjections.constructor(MemberDTO.class, member.userName, member.age))
+                                            .from(member)
+                                            .where(member.userName.eq("noAge"))
+                                            .fetchOne();
+        MemberDTO bean = queryFactory.select(FastProjections.bean(MemberDTO.class, member.userName, member.age))
+                                     .from(member)
+                                     .where(member.userName.eq("noAge"))
+                                     .fetchOne();
+        
+        assertThat(expected.getAge()).isZero();
+        assertThat(constructor).isEqualTo(expected);
+        assertThat(bean).isEqualTo(expected);
+    }
 }
@@ -0,0 +1,112 @@
+package com.study.querydsl.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.study.querydsl.StartApplication;
+import com.study.querydsl.dto.MemberSearchCondition;
+import com.study.querydsl.dto.MemberTeamDTO;
+import com.study.querydsl.repository.MemberRepository;
+import com.study.querydsl.repository.support.TeamNameCache;
+
+/**
+ * 벤치마크용 스프링 컨텍스트
+ * 
+ * chapter-05 애플리케이션을 웹 서버 없이 인메모리 H2로 띄우고 JDBC 배치로 데이터를 넣는다
+ * - 팀 100개 (team0 ~ team99)
+ * - 회원 memberCount명 : member{i}, 나이 (i / 100) % 100, 팀 team{i % 100}
+ *   나이와 팀이 독립이므로 팀 하나의 회원도 나이 0 ~ 99에 고르게 분포한다 (team7, 30 <= age <= 39 - 전체의 0.1%)
+ */
+public final class BenchmarkContext {
+
+    public static final int TEAM_COUNT = 100;
+    private static final int BATCH_SIZE = 10_000;
+
+    private BenchmarkContext() { }
+
+    /**
+     * 커맨드라인 인자로 넘겨야 application.yml(profiles.active: local 등)보다 우선한다
+     */
+    public static ConfigurableApplicationContext start(String name, String... extraArgs) {
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.profiles.active=bench",
+                "--spring.main.banner-mode=off",
+                "--spring.datasource.url=jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1",
+                "--spring.jpa.hibernate.ddl-auto=create",
+                "--spring.jpa.properties.hibernate.format_sql=false",
+                "--spring.jpa.properties.hibernate.use_sql_comments=false",
+                "--decorator.datasource.enabled=false", //p6spy 끄기
+                "--logging.level.root=warn",
+                "--logging.level.org.hibernate.SQL=warn",
+                "--logging.level.org.hibernate.type=warn"));
+        args.addAll(List.of(extraArgs));
+        
+        return new SpringApplicationBuilder(StartApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(args.toArray(new String[0]));
+    }
+
+    public static void seed(ConfigurableApplicationContext context, int memberCount) {
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        
+        List<Object[]> teams = new ArrayList<>(TEAM_COUNT);
+        for (int i = 0; i < TEAM_COUNT; i++) {
+            teams.add(new Object[] { teamId(i), "team" + i });
+        }
+        jdbcTemplate.batchUpdate("insert into team (id, name) values (?, ?)", teams);
+        context.getBean(TeamNameCache.class).invalidate(); // JDBC로 넣은 팀은 엔티티 리스너를 거치지 않는다
+        
+        List<Object[]> members = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < memberCount; i++) {
+            members.add(new Object[] { TEAM_COUNT + 1L + i, "member" + i, age(i), teamId(i % TEAM_COUNT) });
+            if (members.size() == BATCH_SIZE) {
+                jdbcTemplate.batchUpdate("insert into member (id, user_name, age, team_id) values (?, ?, ?, ?)", members);
+                members.clear();
+            }
+        }
+        if (!members.isEmpty()) {
+            jdbcTemplate.batchUpdate("insert into member (id, user_name, age, team_id) values (?, ?, ?, ?)", members);
+        }
+    }
+
+    /**
+     * 시드 데이터에서 조건에 맞는 회원 수 확인 - 결과가 없는 조건을 측정하지 않도록 setUp에서 호출
+     */
+    public static void expectTotal(ConfigurableApplicationContext context, MemberSearchCondition condition, long expected) {
+        expectTotal(context, condition, expected, PageRequest.of(0, 1));
+    }
+
+    /**
+     * 조건에 맞는 회원 수와 함께 측정할 페이지가 비어 있지 않은지 확인 - 범위를 벗어난 빈 페이지를 측정하지 않도록
+     */
+    public static void expectTotal(ConfigurableApplicationContext context, MemberSearchCondition condition, long expected,
+            Pageable pageable) {
+        Page<MemberTeamDTO> page = context.getBean(MemberRepository.class).searchPageComplex(condition, pageable);
+        if (page.getTotalElements() != expected) {
+            throw new IllegalStateException("expected " + expected + " members for " + condition
+                                            + " but was " + page.getTotalElements());
+        }
+        if (!page.hasContent()) {
+            throw new IllegalStateException("page " + pageable + " is empty for " + condition + " (total " + expected + ")");
+        }
+    }
+
+    /**
+     * 팀(i % TEAM_COUNT)과 상관 없는 나이
+     */
+    private static int age(int i) {
+        return (i / TEAM_COUNT) % 100;
+    }
+
+    private static long teamId(int teamIndex) {
+        return teamIndex + 1L;
+    }
+}
@@ -0,0 +1,78 @@
+package com.study.querydsl.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.study.querydsl.dto.MemberTeamDTO;
+import com.study.querydsl.repository.MemberImporter;
+
+/**
+ * MemberImporter 회원 등록 - 한 번에 100만명 (목표 : 초당 10만건 이상, 10초 이내)
+ * 
+ * 레코드는 스트림으로 하나씩 만들어서 넘긴다 (메모리에 100만건을 올리지 않는다)
+ * 팀 100개는 미리 넣어두고 레코드의 팀 이름(team0 ~ team99)으로 찾는다
+ * batchRows : insert 한 문장에 넣는 행 수 (1이면 행마다 insert)
+ * 
+ * 실행 : gradle :chapter-05-benchmark:jmh -PjmhInclude=MemberImportBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx512m")
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class MemberImportBenchmark {
+
+    @Param({"1000000"})
+    int memberCount;
+
+    @Param({"1", "100", "500"})
+    int batchRows;
+
+    ConfigurableApplicationContext context;
+    JdbcTemplate jdbcTemplate;
+    MemberImporter memberImporter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("import" + batchRows, "--querydsl.import.batch-rows=" + batchRows);
+        BenchmarkContext.seed(context, 0);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        memberImporter = context.getBean(MemberImporter.class);
+    }
+
+    @Setup(Level.Iteration)
+    public void clear() {
+        jdbcTemplate.execute("delete from member");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public MemberImporter.Result importMembers() {
+        Stream<MemberTeamDTO> records = IntStream.range(0, memberCount)
+                                                 .mapToObj(i -> new MemberTeamDTO(null, "member" + i, i % 100, null,
+                                                                                  "team" + (i % BenchmarkContext.TEAM_COUNT)));
+        return memberImporter.importMemberTeams(records);
+    }
+}
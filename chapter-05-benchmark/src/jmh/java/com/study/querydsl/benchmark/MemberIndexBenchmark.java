@@ -0,0 +1,137 @@
+package com.study.querydsl.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.persistence.Index;
+import javax.persistence.Table;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.study.querydsl.domain.Member;
+import com.study.querydsl.domain.Team;
+import com.study.querydsl.dto.MemberSearchCondition;
+import com.study.querydsl.dto.MemberTeamDTO;
+import com.study.querydsl.repository.MemberRepository;
+
+/**
+ * 엔티티 인덱스(@Table(indexes), IndexAdvisor 제안) 적용 전/후 비교 - 회원 100만명
+ * 
+ * indexed=false 이면 스키마 생성 후 엔티티에 선언된 인덱스를 모두 drop 한다 (기본키, 외래키 인덱스만 남는다)
+ * - teamAndAge : team7, 30 <= age <= 39 (team(name), member(team_id, age)) - 0.1% (1000명)
+ * - userName : member123456 (member(user_name, age)) - 1명
+ * - ageRange : 30 <= age <= 30 (member(age)) - 1% (10000명)
+ * - sortByTeamName : 조건 없이 team.name 정렬 (team(name))
+ * count 캐시가 없는 searchPageComplex/searchPageBySort로 content, count 쿼리를 매번 실행한다
+ * 
+ * 실행 : gradle :chapter-05-benchmark:jmh -PjmhInclude=MemberIndexBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class MemberIndexBenchmark {
+
+    @Param({"1000000"})
+    int memberCount;
+
+    @Param({"false", "true"})
+    boolean indexed;
+
+    ConfigurableApplicationContext context;
+    MemberRepository memberRepository;
+    MemberSearchCondition teamAndAge;
+    MemberSearchCondition userName;
+    MemberSearchCondition ageRange;
+    Pageable pageable;
+    Pageable teamNameSorted;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("index" + indexed);
+        BenchmarkContext.seed(context, memberCount);
+        
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        if (!indexed) {
+            for (Index index : indexes()) {
+                jdbcTemplate.execute("drop index " + index.name());
+            }
+        }
+        jdbcTemplate.execute("analyze"); //H2 옵티마이저 통계 갱신 (컬럼 선택도)
+        
+        memberRepository = context.getBean(MemberRepository.class);
+        
+        teamAndAge = new MemberSearchCondition();
+        teamAndAge.setTeamName("team7");
+        teamAndAge.setAgeGoe(30);
+        teamAndAge.setAgeLoe(39);
+        
+        userName = new MemberSearchCondition();
+        userName.setUserName("member123456");
+        
+        ageRange = new MemberSearchCondition();
+        ageRange.setAgeGoe(30);
+        ageRange.setAgeLoe(30);
+        
+        BenchmarkContext.expectTotal(context, teamAndAge, memberCount / 1000);
+        BenchmarkContext.expectTotal(context, userName, 1);
+        BenchmarkContext.expectTotal(context, ageRange, memberCount / 100);
+        
+        pageable = PageRequest.of(0, 20);
+        teamNameSorted = PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "team.name"));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    private static List<Index> indexes() {
+        List<Index> indexes = new ArrayList<>();
+        indexes.addAll(Arrays.asList(Member.class.getAnnotation(Table.class).indexes()));
+        indexes.addAll(Arrays.asList(Team.class.getAnnotation(Table.class).indexes()));
+        return indexes;
+    }
+
+    @Benchmark
+    public Page<MemberTeamDTO> teamAndAge() {
+        return memberRepository.searchPageComplex(teamAndAge, pageable);
+    }
+
+    @Benchmark
+    public Page<MemberTeamDTO> userName() {
+        return memberRepository.searchPageComplex(userName, pageable);
+    }
+
+    @Benchmark
+    public Page<MemberTeamDTO> ageRange() {
+        return memberRepository.searchPageComplex(ageRange, pageable);
+    }
+
+    @Benchmark
+    public Page<MemberTeamDTO> sortByTeamName() {
+        return memberRepository.searchPageBySort(new MemberSearchCondition(), teamNameSorted);
+    }
+}
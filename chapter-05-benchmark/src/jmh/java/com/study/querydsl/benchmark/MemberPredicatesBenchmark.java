@@ -0,0 +1,93 @@
+package com.study.querydsl.benchmark;
+
+import static com.study.querydsl.domain.QMember.member;
+import static com.study.querydsl.domain.QTeam.team;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.util.StringUtils;
+
+import com.querydsl.core.types.ExpressionUtils;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.study.querydsl.dto.MemberSearchCondition;
+import com.study.querydsl.repository.MemberPredicates;
+
+/**
+ * 검색 조건 -> where절 Predicate 생성 비용 (DB 없음, 요청 한 번 기준)
+ *
+ * - legacy : 리포지토리마다 있던 userNameEq, teamNameEq, ageGoe, ageLoe로 content 쿼리와 count 쿼리 조건을 각각 만든다
+ * - shared : MemberPredicates.of()로 한 번 만들어서 두 쿼리에 같이 사용 (나이 조건은 미리 만든 노드 재사용)
+ * 호출당 할당량은 gc 프로파일러의 gc.alloc.rate.norm으로 비교한다
+ *
+ * 실행 : gradle :chapter-05-benchmark:jmh -PjmhInclude=MemberPredicatesBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class MemberPredicatesBenchmark {
+
+    MemberSearchCondition condition;
+
+    @Setup
+    public void setUp() {
+        condition = new MemberSearchCondition();
+        condition.setTeamName("team7");
+        condition.setAgeGoe(30);
+        condition.setAgeLoe(39);
+    }
+
+    @Benchmark
+    public void legacy(Blackhole blackhole) {
+        blackhole.consume(legacyWhere(condition)); // content
+        blackhole.consume(legacyWhere(condition)); // count
+    }
+
+    @Benchmark
+    public void shared(Blackhole blackhole) {
+        Predicate where = MemberPredicates.of(condition);
+        blackhole.consume(where); // content
+        blackhole.consume(where); // count
+    }
+
+    /**
+     * .where(userNameEq(..), teamNameEq(..), ageGoe(..), ageLoe(..)) - where()도 내부에서 allOf로 합친다
+     */
+    private static Predicate legacyWhere(MemberSearchCondition condition) {
+        return ExpressionUtils.allOf(userNameEq(condition.getUserName()),
+                                     teamNameEq(condition.getTeamName()),
+                                     ageGoe(condition.getAgeGoe()),
+                                     ageLoe(condition.getAgeLoe()));
+    }
+
+    private static BooleanExpression userNameEq(String userName) {
+        return (!StringUtils.hasText(userName)) ? null : member.userName.eq(userName);
+    }
+
+    private static BooleanExpression teamNameEq(String teamName) {
+        return (!StringUtils.hasText(teamName)) ? null : team.name.eq(teamName);
+    }
+
+    private static BooleanExpression ageGoe(Integer ageGoe) {
+        return (Objects.isNull(ageGoe)) ? null : member.age.goe(ageGoe);
+    }
+
+    private static BooleanExpression ageLoe(Integer ageLoe) {
+        return (Objects.isNull(ageLoe)) ? null : member.age.loe(ageLoe);
+    }
+}
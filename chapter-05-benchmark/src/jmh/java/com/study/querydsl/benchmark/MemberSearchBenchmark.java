@@ -0,0 +1,106 @@
+package com.study.querydsl.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import com.study.querydsl.dto.MemberSearchCondition;
+import com.study.querydsl.dto.MemberTeamDTO;
+import com.study.querydsl.repository.MemberRepository;
+
+/**
+ * MemberRepositoryCustom 검색 방식별 처리량 비교
+ * 
+ * 같은 조건(team7, 30 <= age <= 39 - 전체의 0.1%)으로
+ * - 목록 : searchByBuilder, searchByWhereClause
+ * - 페이징 : searchPageSimple, searchPageComplex, searchPageOptimal, searchPageBySort (2페이지, 5건)
+ *   가장 작은 데이터(10000건, 조건에 맞는 회원 10명)에서도 첫 페이지가 아니고 꽉 찬 페이지라 모든 건수에서 count 쿼리까지 실행된다
+ * 을 데이터 건수(memberCount)별로 측정한다. gc 프로파일러로 호출당 할당량도 함께 본다
+ * 
+ * 실행 : gradle :chapter-05-benchmark:jmh -PjmhInclude=MemberSearchBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class MemberSearchBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    int memberCount;
+
+    ConfigurableApplicationContext context;
+    MemberRepository memberRepository;
+    MemberSearchCondition condition;
+    Pageable pageable;
+    Pageable sortedPageable;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("search" + memberCount);
+        BenchmarkContext.seed(context, memberCount);
+        memberRepository = context.getBean(MemberRepository.class);
+        
+        condition = new MemberSearchCondition();
+        condition.setTeamName("team7");
+        condition.setAgeGoe(30);
+        condition.setAgeLoe(39);
+        pageable = PageRequest.of(1, 5);
+        sortedPageable = PageRequest.of(1, 5, Sort.by(Sort.Direction.DESC, "userName"));
+        BenchmarkContext.expectTotal(context, condition, memberCount / 1000, pageable);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<MemberTeamDTO> searchByBuilder() {
+        return memberRepository.searchByBuilder(condition);
+    }
+
+    @Benchmark
+    public List<MemberTeamDTO> searchByWhereClause() {
+        return memberRepository.searchByWhereClause(condition);
+    }
+
+    @Benchmark
+    public Page<MemberTeamDTO> searchPageSimple() {
+        return memberRepository.searchPageSimple(condition, pageable);
+    }
+
+    @Benchmark
+    public Page<MemberTeamDTO> searchPageComplex() {
+        return memberRepository.searchPageComplex(condition, pageable);
+    }
+
+    @Benchmark
+    public Page<MemberTeamDTO> searchPageOptimal() {
+        return memberRepository.searchPageOptimal(condition, pageable);
+    }
+
+    @Benchmark
+    public Page<MemberTeamDTO> searchPageBySort() {
+        return memberRepository.searchPageBySort(condition, sortedPageable);
+    }
+}
@@ -0,0 +1,174 @@
+package com.study.querydsl.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * 요청 종류별 비율(mix)에 맞춰 동시에 요청을 보내고 응답 시간을 HdrHistogram에 기록한다
+ *
+ * - closed loop (rate=0) : 스레드마다 응답을 받으면 바로 다음 요청
+ * - open loop (rate>0) : 스레드마다 정해진 간격으로 요청, 응답 시간은 "보냈어야 하는 시각"부터 잰다
+ *   (서버가 밀려서 요청이 늦게 나간 시간도 응답 시간에 포함 - coordinated omission 보정)
+ * 응답 시간은 마이크로초 단위로 기록, 상태 코드 4xx/5xx와 예외는 오류로 센다
+ */
+public class LoadGenerator {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final HttpClient client;
+    private final String baseUrl;
+    private final LoadTestOptions options;
+    private final RequestShape[] shapes;
+    private final int[] cumulativeWeights;
+    private final Map<RequestShape, Recorder> recorders = new EnumMap<>(RequestShape.class);
+    private final Map<RequestShape, LongAdder> errors = new EnumMap<>(RequestShape.class);
+
+    public LoadGenerator(String baseUrl, LoadTestOptions options) {
+        this.client = HttpClient.newBuilder()
+                                .version(HttpClient.Version.HTTP_1_1)
+                                .connectTimeout(Duration.ofSeconds(5))
+                                .build();
+        this.baseUrl = baseUrl;
+        this.options = options;
+
+        Map<RequestShape, Integer> mix = options.getMix();
+        this.shapes = mix.keySet().toArray(new RequestShape[0]);
+        this.cumulativeWeights = new int[shapes.length];
+        int sum = 0;
+        for (int i = 0; i < shapes.length; i++) {
+            sum += mix.get(shapes[i]);
+            cumulativeWeights[i] = sum;
+            recorders.put(shapes[i], new Recorder(HIGHEST_TRACKABLE_MICROS, 3));
+            errors.put(shapes[i], new LongAdder());
+        }
+    }
+
+    /**
+     * 워밍업 - 결과는 버린다
+     */
+    public void warmup() throws InterruptedException {
+        run(options.getWarmup(), options.getSeed() - 1);
+        for (RequestShape shape : shapes) {
+            recorders.get(shape).getIntervalHistogram();
+            errors.get(shape).reset();
+        }
+    }
+
+    public LoadResult measure() throws InterruptedException {
+        long start = System.nanoTime();
+        run(options.getDuration(), options.getSeed());
+        long elapsed = System.nanoTime() - start;
+
+        Map<RequestShape, Histogram> histograms = new EnumMap<>(RequestShape.class);
+        Map<RequestShape, Long> errorCounts = new EnumMap<>(RequestShape.class);
+        for (RequestShape shape : shapes) {
+            histograms.put(shape, recorders.get(shape).getIntervalHistogram());
+            errorCounts.put(shape, errors.get(shape).sum());
+        }
+        return new LoadResult(options, Duration.ofNanos(elapsed), histograms, errorCounts);
+    }
+
+    private void run(Duration duration, long seed) throws InterruptedException {
+        if (duration.isZero()) {
+            return;
+        }
+        int concurrency = options.getConcurrency();
+        long deadline = System.nanoTime() + duration.toNanos();
+        long intervalNanos = options.getRate() > 0 ? TimeUnit.SECONDS.toNanos(concurrency) / options.getRate() : 0;
+
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        List<Future<?>> futures = new ArrayList<>(concurrency);
+        try {
+            for (int i = 0; i < concurrency; i++) {
+                Random random = new Random(seed * 31 + i); //스레드마다 같은 순서의 요청 - 실행마다 재현 가능
+                futures.add(workers.submit(() -> work(random, deadline, intervalNanos)));
+            }
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("load worker failed", e.getCause());
+                }
+            }
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    private void work(Random random, long deadline, long intervalNanos) {
+        long intended = System.nanoTime();
+        while (true) {
+            if (intervalNanos > 0) {
+                long wait = intended - System.nanoTime();
+                if (wait > 0 && !sleep(wait)) {
+                    return;
+                }
+            } else {
+                intended = System.nanoTime();
+            }
+            if (intended >= deadline) {
+                return;
+            }
+
+            RequestShape shape = pick(random);
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + shape.path(random, options)))
+                                             .timeout(Duration.ofSeconds(30))
+                                             .GET()
+                                             .build();
+            boolean failed;
+            try {
+                HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                failed = response.statusCode() >= 400;
+            } catch (IOException e) {
+                failed = true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intended);
+            recorders.get(shape).recordValue(Math.min(micros, HIGHEST_TRACKABLE_MICROS));
+            if (failed) {
+                errors.get(shape).increment();
+            }
+            intended += intervalNanos;
+        }
+    }
+
+    private RequestShape pick(Random random) {
+        int value = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (value < cumulativeWeights[i]) {
+                return shapes[i];
+            }
+        }
+        return shapes[shapes.length - 1];
+    }
+
+    private static boolean sleep(long nanos) {
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
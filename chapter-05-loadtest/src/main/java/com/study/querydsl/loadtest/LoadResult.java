@@ -0,0 +1,101 @@
+package com.study.querydsl.loadtest;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+
+import org.HdrHistogram.Histogram;
+
+/**
+ * 부하 테스트 결과 - 요청 종류별 히스토그램(마이크로초)과 오류 수
+ *
+ * 리포트 디렉토리에 저장하는 파일
+ * - summary.txt : 요청 종류별 처리량(req/s), 오류 수, 응답 시간(ms) 평균, p50, p90, p99, p99.9, 최대
+ * - {요청 종류}.hgrm : 백분위 분포 (HdrHistogram plotter로 그래프를 그릴 수 있다)
+ */
+public class LoadResult {
+
+    private static final double MICROS_PER_MILLI = 1000.0;
+    private static final DateTimeFormatter DIRECTORY_NAME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final LoadTestOptions options;
+    private final Duration elapsed;
+    private final Map<RequestShape, Histogram> histograms;
+    private final Map<RequestShape, Long> errors;
+    private final Histogram total;
+
+    LoadResult(LoadTestOptions options, Duration elapsed, Map<RequestShape, Histogram> histograms, Map<RequestShape, Long> errors) {
+        this.options = options;
+        this.elapsed = elapsed;
+        this.histograms = histograms;
+        this.errors = errors;
+        this.total = new Histogram(3);
+        histograms.values().forEach(total::add);
+    }
+
+    public long getErrorCount() {
+        return errors.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    public String summary() {
+        StringWriter buffer = new StringWriter();
+        PrintWriter out = new PrintWriter(buffer);
+        out.println("options : " + options);
+        out.printf("elapsed : %.1fs%n%n", elapsed.toMillis() / 1000.0);
+        out.printf("%-14s %10s %10s %8s %9s %9s %9s %9s %9s %9s%n",
+                   "request", "count", "req/s", "errors", "mean", "p50", "p90", "p99", "p99.9", "max");
+        histograms.forEach((shape, histogram) -> line(out, shape.getName(), histogram, errors.get(shape)));
+        line(out, "total", total, getErrorCount());
+        out.println();
+        out.println("응답 시간 단위 : ms");
+        out.flush();
+        return buffer.toString();
+    }
+
+    private void line(PrintWriter out, String name, Histogram histogram, long errorCount) {
+        double seconds = elapsed.toNanos() / 1e9;
+        out.printf("%-14s %10d %10.1f %8d %9.2f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                   name,
+                   histogram.getTotalCount(),
+                   histogram.getTotalCount() / seconds,
+                   errorCount,
+                   histogram.getMean() / MICROS_PER_MILLI,
+                   millis(histogram, 50),
+                   millis(histogram, 90),
+                   millis(histogram, 99),
+                   millis(histogram, 99.9),
+                   histogram.getMaxValue() / MICROS_PER_MILLI);
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / MICROS_PER_MILLI;
+    }
+
+    /**
+     * reportDir/{실행 시각}/ 에 summary.txt와 요청 종류별 .hgrm 저장 - 저장한 디렉토리 반환
+     */
+    public Path write(Path reportDir) throws IOException {
+        Path directory = reportDir.resolve(LocalDateTime.now().format(DIRECTORY_NAME));
+        Files.createDirectories(directory);
+        Files.writeString(directory.resolve("summary.txt"), summary(), StandardCharsets.UTF_8);
+        for (Map.Entry<RequestShape, Histogram> entry : histograms.entrySet()) {
+            writeDistribution(directory.resolve(entry.getKey().getName() + ".hgrm"), entry.getValue());
+        }
+        writeDistribution(directory.resolve("total.hgrm"), total);
+        return directory;
+    }
+
+    private static void writeDistribution(Path file, Histogram histogram) throws IOException {
+        try (PrintStream out = new PrintStream(Files.newOutputStream(file), false, StandardCharsets.UTF_8)) {
+            histogram.outputPercentileDistribution(out, MICROS_PER_MILLI);
+        }
+    }
+}
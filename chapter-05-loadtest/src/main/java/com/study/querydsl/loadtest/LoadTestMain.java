@@ -0,0 +1,85 @@
+package com.study.querydsl.loadtest;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.study.querydsl.StartApplication;
+import com.study.querydsl.dto.MemberTeamDTO;
+import com.study.querydsl.repository.MemberImporter;
+
+/**
+ * MemberController(/v1/members, /v2/members) 부하 테스트
+ *
+ * 1. chapter-05 애플리케이션을 같은 JVM에서 임의 포트로 띄운다 (인메모리 H2, 외부 서비스 없음)
+ * 2. 회원 members명, 팀 teams개를 MemberImporter로 등록
+ * 3. 워밍업 후 duration 동안 mix 비율대로 요청을 보내고 응답 시간을 기록
+ * 4. 결과를 출력하고 report-dir에 저장 - 오류가 있으면 종료 코드 1
+ *
+ * 클라이언트와 서버가 CPU를 나눠 쓰므로 절대값보다 변경 전/후 비교에 사용한다 (같은 설정, 같은 seed로 실행)
+ * 실행 : gradle :chapter-05-loadtest:run --args="--duration=60 --concurrency=32"
+ */
+public class LoadTestMain {
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        System.out.println("load test : " + options);
+
+        int exitCode;
+        try (ConfigurableApplicationContext context = start(options)) {
+            seed(context, options);
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+
+            LoadGenerator generator = new LoadGenerator("http://localhost:" + port, options);
+            generator.warmup();
+            LoadResult result = generator.measure();
+
+            System.out.println(result.summary());
+            Path directory = result.write(options.getReportDir());
+            System.out.println("report : " + directory.toAbsolutePath());
+            exitCode = result.getErrorCount() > 0 ? 1 : 0;
+        }
+        System.exit(exitCode);
+    }
+
+    /**
+     * 커맨드라인 인자로 넘겨야 application.yml(profiles.active: local 등)보다 우선한다
+     * 요청마다 남는 SQL 로그는 측정을 왜곡하므로 끈다
+     */
+    private static ConfigurableApplicationContext start(LoadTestOptions options) {
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.profiles.active=loadtest",
+                "--spring.main.banner-mode=off",
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1",
+                "--spring.jpa.hibernate.ddl-auto=create",
+                "--spring.jpa.properties.hibernate.format_sql=false",
+                "--spring.jpa.properties.hibernate.use_sql_comments=false",
+                "--decorator.datasource.enabled=false", //p6spy 끄기
+                "--logging.level.root=warn",
+                "--logging.level.org.hibernate.SQL=warn",
+                "--logging.level.org.hibernate.type=warn"));
+        args.addAll(options.getApplicationArgs()); //같은 설정은 뒤에 온 값이 우선
+
+        return new SpringApplicationBuilder(StartApplication.class)
+                .run(args.toArray(new String[0]));
+    }
+
+    /**
+     * 회원 member{i}, 나이 (i / teams) % 100, 팀 team{i % teams} (RequestShape가 만드는 조건과 맞춘다)
+     * 나이를 i % 100으로 두면 teams가 100의 약수일 때 팀마다 나이가 하나로 고정되어 팀 + 나이 조건 요청 대부분이 빈 결과가 된다
+     */
+    private static void seed(ConfigurableApplicationContext context, LoadTestOptions options) {
+        MemberImporter importer = context.getBean(MemberImporter.class);
+        int teams = options.getTeams();
+        MemberImporter.Result result = importer.importMemberTeams(
+                IntStream.range(0, options.getMembers())
+                         .mapToObj(i -> new MemberTeamDTO(null, "member" + i, (i / teams) % 100, null, "team" + (i % teams))));
+        System.out.println("seed : " + result);
+    }
+}
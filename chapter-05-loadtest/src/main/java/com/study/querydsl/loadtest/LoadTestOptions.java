@@ -0,0 +1,162 @@
+package com.study.querydsl.loadtest;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * 부하 테스트 설정 - 커맨드라인 인자 --이름=값
+ *
+ * --duration=60        측정 시간(초)
+ * --warmup=10          워밍업 시간(초) - 결과에서 제외
+ * --concurrency=16     동시 요청 수 (클라이언트 스레드 수)
+ * --rate=0             초당 목표 요청 수 (0이면 응답을 받는 즉시 다음 요청, closed loop)
+ * --members=100000     초기 회원 수 (MemberImporter로 등록)
+ * --teams=100          팀 수 (team0 ~ team99)
+ * --mix=v1-team=20,... 요청 종류별 비율 (RequestShape)
+ * --page-sizes=10,20,50  /v2/members 페이지 크기 후보
+ * --seed=42            요청 조건을 만드는 난수 시드
+ * --report-dir=build/reports/loadtest
+ * 그 외 --spring.*, --querydsl.* 등은 애플리케이션 설정으로 넘긴다 (예 : --spring.profiles.active=prod)
+ */
+public class LoadTestOptions {
+
+    private static final String DEFAULT_MIX = "v1-team=15,v1-team-age=15,v1-user=10,v2-page=25,v2-team-age=25,v2-deep-page=10";
+
+    private final Duration duration;
+    private final Duration warmup;
+    private final int concurrency;
+    private final int rate;
+    private final int members;
+    private final int teams;
+    private final Map<RequestShape, Integer> mix;
+    private final int[] pageSizes;
+    private final long seed;
+    private final Path reportDir;
+    private final List<String> applicationArgs;
+
+    private LoadTestOptions(Map<String, String> options, List<String> applicationArgs) {
+        this.duration = Duration.ofSeconds(Long.parseLong(options.getOrDefault("duration", "60")));
+        this.warmup = Duration.ofSeconds(Long.parseLong(options.getOrDefault("warmup", "10")));
+        this.concurrency = Integer.parseInt(options.getOrDefault("concurrency", "16"));
+        this.rate = Integer.parseInt(options.getOrDefault("rate", "0"));
+        this.members = Integer.parseInt(options.getOrDefault("members", "100000"));
+        this.teams = Integer.parseInt(options.getOrDefault("teams", "100"));
+        this.mix = parseMix(options.getOrDefault("mix", DEFAULT_MIX));
+        this.pageSizes = Arrays.stream(options.getOrDefault("page-sizes", "10,20,50").split(","))
+                               .mapToInt(size -> Integer.parseInt(size.trim()))
+                               .toArray();
+        this.seed = Long.parseLong(options.getOrDefault("seed", "42"));
+        this.reportDir = Paths.get(options.getOrDefault("report-dir", "build/reports/loadtest"));
+        this.applicationArgs = applicationArgs;
+        
+        if (concurrency <= 0 || teams <= 0 || members < 0 || pageSizes.length == 0) {
+            throw new IllegalArgumentException("concurrency, teams must be positive and page-sizes must not be empty");
+        }
+    }
+
+    public static LoadTestOptions parse(String... args) {
+        Map<String, String> options = new HashMap<>();
+        List<String> applicationArgs = new ArrayList<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Unsupported argument " + arg + " - use --name=value");
+            }
+            String name = arg.substring(2, arg.indexOf('='));
+            if (name.contains(".")) {
+                applicationArgs.add(arg);
+            } else {
+                options.put(name, arg.substring(arg.indexOf('=') + 1));
+            }
+        }
+        return new LoadTestOptions(options, applicationArgs);
+    }
+
+    /**
+     * v1-team=20,v2-page=30 -> {V1_TEAM=20, V2_PAGE=30}
+     */
+    private static Map<RequestShape, Integer> parseMix(String mix) {
+        Map<RequestShape, Integer> weights = new EnumMap<>(RequestShape.class);
+        for (String entry : mix.split(",")) {
+            String[] pair = entry.trim().split("=");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Unsupported mix entry " + entry + " - use name=weight");
+            }
+            int weight = Integer.parseInt(pair[1].trim());
+            if (weight > 0) {
+                weights.put(RequestShape.of(pair[0].trim()), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("mix must contain at least one request shape");
+        }
+        return weights;
+    }
+
+    public Duration getDuration() {
+        return duration;
+    }
+
+    public Duration getWarmup() {
+        return warmup;
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public int getRate() {
+        return rate;
+    }
+
+    public int getMembers() {
+        return members;
+    }
+
+    public int getTeams() {
+        return teams;
+    }
+
+    public Map<RequestShape, Integer> getMix() {
+        return mix;
+    }
+
+    public int[] getPageSizes() {
+        return pageSizes;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public Path getReportDir() {
+        return reportDir;
+    }
+
+    public List<String> getApplicationArgs() {
+        return applicationArgs;
+    }
+
+    @Override
+    public String toString() {
+        return "duration=" + duration.getSeconds() + "s"
+               + ", warmup=" + warmup.getSeconds() + "s"
+               + ", concurrency=" + concurrency
+               + ", rate=" + (rate > 0 ? rate + "/s" : "closed loop")
+               + ", members=" + members
+               + ", teams=" + teams
+               + ", mix=" + mix.entrySet().stream()
+                               .map(e -> e.getKey().getName() + "=" + e.getValue())
+                               .collect(Collectors.joining(","))
+               + ", pageSizes=" + Arrays.toString(pageSizes)
+               + ", seed=" + seed
+               + (applicationArgs.isEmpty() ? "" : ", applicationArgs=" + applicationArgs);
+    }
+}
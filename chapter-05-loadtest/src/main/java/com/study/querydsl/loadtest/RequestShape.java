@@ -0,0 +1,91 @@
+package com.study.querydsl.loadtest;
+
+import java.util.Random;
+
+/**
+ * 부하 테스트 요청 종류 - MemberSearchCondition 조합과 페이지 크기
+ *
+ * 데이터는 LoadTestMain이 넣은 값과 맞춘다 : 회원 member{i}, 나이 (i / teams) % 100, 팀 team{i % teams}
+ */
+public enum RequestShape {
+
+    /** 팀 하나의 전체 회원 (/v1은 페이징 없음 - 응답이 크다) */
+    V1_TEAM("v1-team") {
+        @Override
+        String path(Random random, LoadTestOptions options) {
+            return "/v1/members?teamName=" + teamName(random, options);
+        }
+    },
+    /** 팀 + 나이 10살 범위 */
+    V1_TEAM_AGE("v1-team-age") {
+        @Override
+        String path(Random random, LoadTestOptions options) {
+            int ageGoe = random.nextInt(90);
+            return "/v1/members?teamName=" + teamName(random, options) + "&ageGoe=" + ageGoe + "&ageLoe=" + (ageGoe + 9);
+        }
+    },
+    /** 이름으로 한 명 (없는 이름도 섞인다) */
+    V1_USER("v1-user") {
+        @Override
+        String path(Random random, LoadTestOptions options) {
+            return "/v1/members?userName=member" + random.nextInt(Math.max(1, options.getMembers()) * 2);
+        }
+    },
+    /** 조건 없이 앞쪽 페이지 */
+    V2_PAGE("v2-page") {
+        @Override
+        String path(Random random, LoadTestOptions options) {
+            return "/v2/members?page=" + random.nextInt(5) + "&size=" + pageSize(random, options);
+        }
+    },
+    /** 팀 + 나이 범위 페이징 */
+    V2_TEAM_AGE("v2-team-age") {
+        @Override
+        String path(Random random, LoadTestOptions options) {
+            int ageGoe = random.nextInt(80);
+            return "/v2/members?teamName=" + teamName(random, options) + "&ageGoe=" + ageGoe + "&ageLoe=" + (ageGoe + 19)
+                   + "&page=" + random.nextInt(3) + "&size=" + pageSize(random, options);
+        }
+    },
+    /** 나이 조건으로 깊은 페이지 (offset이 큰 요청) */
+    V2_DEEP_PAGE("v2-deep-page") {
+        @Override
+        String path(Random random, LoadTestOptions options) {
+            return "/v2/members?ageGoe=" + random.nextInt(50) + "&page=" + (50 + random.nextInt(200))
+                   + "&size=" + pageSize(random, options);
+        }
+    };
+
+    private final String name;
+
+    RequestShape(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 요청 경로 (쿼리 스트링 포함)
+     */
+    abstract String path(Random random, LoadTestOptions options);
+
+    public static RequestShape of(String name) {
+        for (RequestShape shape : values()) {
+            if (shape.name.equals(name)) {
+                return shape;
+            }
+        }
+        throw new IllegalArgumentException("Unknown request shape " + name);
+    }
+
+    private static String teamName(Random random, LoadTestOptions options) {
+        return "team" + random.nextInt(options.getTeams());
+    }
+
+    private static int pageSize(Random random, LoadTestOptions options) {
+        int[] pageSizes = options.getPageSizes();
+        return pageSizes[random.nextInt(pageSizes.length)];
+    }
+}
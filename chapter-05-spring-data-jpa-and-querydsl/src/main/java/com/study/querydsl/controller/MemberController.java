@@ -1,13 +1,29 @@
 package com.study.querydsl.controller;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.stream.Stream;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.study.querydsl.dto.MemberKeysetSlice;
 import com.study.querydsl.dto.MemberSearchCondition;
 import com.study.querydsl.dto.MemberTeamDTO;
 import com.study.querydsl.repository.MemberRepositoryImpl;
@@ -18,16 +34,68 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class MemberController {
     
+    private static final String NDJSON = "application/x-ndjson";
+    private static final int STREAM_FETCH_SIZE = 500;
+    
     private final MemberRepositoryImpl memberQuerydslRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
     
     @GetMapping("/v1/members")
     public List<MemberTeamDTO> searchMemberV1(MemberSearchCondition condition) {
         return memberQuerydslRepository.searchByWhereClause(condition);
     }
     
+    /**
+     * /v1/members의 스트리밍 버전 - NDJSON(한 줄에 회원 하나)
+     * 전체 결과를 메모리에 올리지 않고 DB에서 읽는 대로 응답에 쓰므로 결과 건수와 상관없이 메모리 사용량이 일정하다
+     * StreamingResponseBody는 별도 스레드에서 실행되므로 읽기 전용 트랜잭션을 그 스레드에서 직접 연다
+     */
+    @GetMapping(value = "/v1/members/stream", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamMemberV1(MemberSearchCondition condition) {
+        TransactionTemplate readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        
+        StreamingResponseBody body = out -> readOnlyTransaction.executeWithoutResult(status -> writeNdjson(condition, out));
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
+    }
+    
+    private void writeNdjson(MemberSearchCondition condition, OutputStream out) {
+        try (Stream<MemberTeamDTO> rows = memberQuerydslRepository.streamByWhereClause(condition, STREAM_FETCH_SIZE);
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+            int written = 0;
+            for (MemberTeamDTO row : (Iterable<MemberTeamDTO>) rows::iterator) {
+                generator.writeObject(row);
+                generator.writeRaw('\n');
+                if (++written % STREAM_FETCH_SIZE == 0) {
+                    generator.flush();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
     @GetMapping("/v2/members")
     public Page<MemberTeamDTO> searchMemberV2(MemberSearchCondition condition, 
                                               @PageableDefault(page = 0, size = 20)Pageable pageable) {
         return memberQuerydslRepository.searchPageOptimal(condition, pageable);
     }
+    
+    /**
+     * 키셋 페이징 - 응답의 nextCursor를 cursor 파라미터로 넘겨서 다음 페이지 조회
+     */
+    @GetMapping("/v3/members")
+    public MemberKeysetSlice searchMemberV3(MemberSearchCondition condition,
+                                            @RequestParam(required = false) String cursor,
+                                            @RequestParam(defaultValue = "20") int size) {
+        return memberQuerydslRepository.searchSliceByKeyset(condition, cursor, size);
+    }
+    
+    @ExceptionHandler(IllegalArgumentException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public String badRequest(IllegalArgumentException e) {
+        return e.getMessage();
+    }
 }
@@ -0,0 +1,47 @@
+package com.study.querydsl.controller;
+
+import java.io.IOException;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.study.querydsl.repository.support.QueryCounter;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 요청마다 실행한 SQL 수를 센다 (QueryCounter)
+ * - 같은 SQL이 반복되면 QueryCounter가 호출 위치와 함께 경고 로그를 남긴다 (N+1)
+ * - 요청 하나의 SQL 수가 maxPerRequest를 넘으면 경고 로그
+ * 응답을 다른 스레드에서 쓰는 요청(/v1/members/stream)은 그 스레드의 SQL을 세지 않는다
+ */
+@Slf4j
+@Component
+public class QueryCountFilter extends OncePerRequestFilter {
+
+    private final QueryCounter queryCounter;
+    private final int maxPerRequest;
+
+    public QueryCountFilter(QueryCounter queryCounter,
+                            @Value("${querydsl.query-counter.max-per-request:10}") int maxPerRequest) {
+        this.queryCounter = queryCounter;
+        this.maxPerRequest = maxPerRequest;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        try (QueryCounter.Scope scope = queryCounter.start(request.getMethod() + " " + request.getRequestURI())) {
+            filterChain.doFilter(request, response);
+            if (scope.getCount() > maxPerRequest) {
+                log.warn("{} executed {} statements (max {})", scope.getName(), scope.getCount(), maxPerRequest);
+            }
+        }
+    }
+}
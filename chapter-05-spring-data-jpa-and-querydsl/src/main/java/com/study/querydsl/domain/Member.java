@@ -4,11 +4,16 @@ import java.util.Objects;
 
 import javax.jdo.annotations.Column;
 import javax.persistence.Entity;
+import javax.persistence.EntityListeners;
 import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
 
 import lombok.AccessLevel;
 import lombok.Getter;
@@ -16,14 +21,23 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
 
+import com.study.querydsl.repository.support.CountCacheEvictListener;
+
 
 @Entity
+@EntityListeners(CountCacheEvictListener.class) //저장/수정/삭제시 페이징 count 캐시 초기화
+@Table(indexes = { //검색 조건(MemberSearchCondition)별 인덱스 - IndexAdvisor 제안 (IndexAdvisorTest에서 검증)
+        @Index(name = "idx_member_user_name_age", columnList = "user_name, age"),
+        @Index(name = "idx_member_team_id_age", columnList = "team_id, age"),
+        @Index(name = "idx_member_age", columnList = "age")
+})
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = {"id", "userName", "age"})
 public class Member extends BaseEntity {
     
     @Column(name = "MEMBER_ID")
-    @Id @GeneratedValue
+    @Id @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "member_seq_generator")
+    @SequenceGenerator(name = "member_seq_generator", sequenceName = "member_seq", allocationSize = 50) //시퀀스 한번 호출로 id 50개 사용
     @Getter
     private Long id;
     
@@ -33,7 +47,7 @@ public class Member extends BaseEntity {
     @Getter @Setter
     private Integer age;
     
-    @ManyToOne(fetch = FetchType.LAZY )
+    @ManyToOne(fetch = FetchType.LAZY ) //배치 크기는 Team의 @BatchSize, 목록 조회 후 한번에 초기화하려면 MemberRepository.preloadTeams
     @JoinColumn(name = "TEAM_ID")
     @Getter
     Team team;
@@ -53,11 +67,17 @@ public class Member extends BaseEntity {
         this.team = team;
     }
     
+    /**
+     * 팀 변경 - 이전 팀과 새 팀의 members 컬렉션은 이미 로딩된 경우에만 변경한다 (컬렉션을 로딩하지 않음)
+     * 여러 회원을 한번에 옮길 때는 MemberRepository.changeTeam(memberIds, teamId) 사용
+     */
     public void changeTeam(Team team) {
+        if (!Objects.isNull(this.team)) {
+            this.team.removeMember(this);
+        }
         this.team = team;
-        if (!team.getMembers().isEmpty() && !Objects.isNull(getId())) {
-            team.getMembers().removeIf(m -> getId().equals(m.getId()));
+        if (!Objects.isNull(team)) {
+            team.addMember(this);
         }
-        team.getMembers().add(this);
     }
 }
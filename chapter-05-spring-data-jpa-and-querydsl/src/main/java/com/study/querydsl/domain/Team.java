@@ -1,14 +1,29 @@
 package com.study.querydsl.domain;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
 
 import javax.jdo.annotations.Column;
+import javax.persistence.Cacheable;
 import javax.persistence.CascadeType;
 import javax.persistence.Entity;
+import javax.persistence.EntityListeners;
 import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.MapKey;
 import javax.persistence.OneToMany;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import lombok.AccessLevel;
 import lombok.Getter;
@@ -16,13 +31,27 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
 
+import com.study.querydsl.repository.support.CountCacheEvictListener;
+import com.study.querydsl.repository.support.TeamNameCacheEvictListener;
+
 @Entity
+@EntityListeners({CountCacheEvictListener.class, TeamNameCacheEvictListener.class}) //저장/수정/삭제시 페이징 count 캐시, 팀 이름 캐시 초기화
+@Table(indexes = @Index(name = "idx_team_name", columnList = "name")) //teamName 검색/정렬 - IndexAdvisor 제안
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE) //2차 캐시 - member.team 지연 로딩, em.find는 DB 대신 캐시에서 읽는다
+@BatchSize(size = Team.BATCH_FETCH_SIZE) //member.team 프록시 초기화시 아직 초기화 안 된 팀을 in 절로 함께 조회
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = {"id", "name"})
 public class Team extends BaseEntity {
     
+    /**
+     * 지연 로딩 배치 크기 (member.team, team.members) - 전역 설정(default_batch_fetch_size) 대신 연관관계별로 지정
+     */
+    public static final int BATCH_FETCH_SIZE = 100;
+    
     @Column(name = "TEAM_ID")
-    @Id @GeneratedValue
+    @Id @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "team_seq_generator")
+    @SequenceGenerator(name = "team_seq_generator", sequenceName = "team_seq", allocationSize = 50) //시퀀스 한번 호출로 id 50개 사용
     @Getter
     private Long id;
     
@@ -33,8 +62,41 @@ public class Team extends BaseEntity {
         this.name = name; 
     }
     
+    /**
+     * 회원 id로 찾는 컬렉션 - 팀 변경시 O(1)로 추가/삭제
+     * 연관관계의 주인은 Member.team 이므로 이 컬렉션은 DB에 반영되지 않는다 (메모리상 정합성 용도)
+     */
     @OneToMany(mappedBy = "team", cascade = CascadeType.ALL)
-    @Getter
-    private List<Member> members = new ArrayList<>();
+    @MapKey(name = "id")
+    @BatchSize(size = BATCH_FETCH_SIZE) //컬렉션 초기화시 다른 팀의 members 컬렉션도 in 절로 함께 조회
+    private Map<Long, Member> members = new LinkedHashMap<>();
+    
+    /**
+     * 지연 로딩 컬렉션이면 호출시 팀의 회원 전체를 조회한다
+     */
+    public Collection<Member> getMembers() {
+        return Collections.unmodifiableCollection(members.values());
+    }
     
+    /**
+     * members 컬렉션이 이미 로딩되었는지 - 로딩되지 않았으면 addMember/removeMember는 컬렉션을 건드리지 않는다
+     */
+    public boolean isMembersLoaded() {
+        return Hibernate.isInitialized(members);
+    }
+    
+    /**
+     * 아직 저장하지 않은 회원(id 없음)은 키가 없으므로 넣지 않는다 - 저장 후 컬렉션을 다시 로딩하면 포함된다
+     */
+    public void addMember(Member member) {
+        if (isMembersLoaded() && !Objects.isNull(member.getId())) {
+            members.put(member.getId(), member);
+        }
+    }
+    
+    public void removeMember(Member member) {
+        if (isMembersLoaded() && !Objects.isNull(member.getId())) {
+            members.remove(member.getId());
+        }
+    }
 }
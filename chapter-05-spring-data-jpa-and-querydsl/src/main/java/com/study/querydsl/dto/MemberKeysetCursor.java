@@ -0,0 +1,70 @@
+package com.study.querydsl.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Objects;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 키셋(seek) 페이징에서 마지막으로 읽은 행의 위치 - (age, memberId)
+ * 클라이언트에게는 Base64 문자열(continuation token)로만 노출한다
+ * 토큰에는 검색 조건(정규화)의 해시를 함께 넣는다 - 다른 조건으로 넘긴 커서는 isFor()가 false
+ */
+@Getter
+@ToString
+public class MemberKeysetCursor {
+
+    private static final String SEPARATOR = ":";
+
+    private final int conditionHash;
+    private final Integer age; // 나이가 null인 회원은 가장 앞에 정렬된다 (nulls first)
+    private final Long memberId;
+
+    public MemberKeysetCursor(int conditionHash, Integer age, Long memberId) {
+        this.conditionHash = conditionHash;
+        this.age = age;
+        this.memberId = Objects.requireNonNull(memberId, "memberId must not be null");
+    }
+
+    public static MemberKeysetCursor of(MemberSearchCondition condition, MemberTeamDTO last) {
+        return new MemberKeysetCursor(hash(condition), last.getAge(), last.getMemberId());
+    }
+
+    /**
+     * 이 커서를 만든 검색 조건인지
+     */
+    public boolean isFor(MemberSearchCondition condition) {
+        return conditionHash == hash(condition);
+    }
+
+    public String encode() {
+        String raw = Integer.toHexString(conditionHash) + SEPARATOR + (Objects.isNull(age) ? "" : age) + SEPARATOR + memberId;
+        return Base64.getUrlEncoder()
+                     .withoutPadding()
+                     .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static MemberKeysetCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split(SEPARATOR, -1);
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("invalid cursor : " + token);
+            }
+            return new MemberKeysetCursor(Integer.parseUnsignedInt(parts[0], 16),
+                                          parts[1].isEmpty() ? null : Integer.valueOf(parts[1]),
+                                          Long.valueOf(parts[2]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("invalid cursor : " + token, e);
+        }
+    }
+
+    /**
+     * 검색 조건 해시 - 빈 문자열 조건은 조건 없음과 같게 정규화한 뒤 계산 (String/Integer 해시라 JVM이 달라도 같다)
+     */
+    private static int hash(MemberSearchCondition condition) {
+        return condition.normalized().hashCode();
+    }
+}
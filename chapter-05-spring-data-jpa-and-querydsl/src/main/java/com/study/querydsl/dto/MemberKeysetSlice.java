@@ -0,0 +1,34 @@
+package com.study.querydsl.dto;
+
+import java.util.List;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 키셋 페이징 결과
+ * 다음 페이지는 같은 검색 조건에 nextCursor를 그대로 넘겨서 조회한다 (마지막 페이지면 null)
+ */
+@Getter
+@ToString
+public class MemberKeysetSlice {
+
+    /**
+     * 한 번에 조회할 수 있는 최대 건수
+     */
+    public static final int MAX_SIZE = 100;
+
+    private final List<MemberTeamDTO> content;
+    private final int size;
+    private final boolean hasNext;
+    private final String nextCursor;
+
+    public MemberKeysetSlice(MemberSearchCondition condition, List<MemberTeamDTO> content, int size, boolean hasNext) {
+        this.content = content;
+        this.size = size;
+        this.hasNext = hasNext;
+        this.nextCursor = hasNext && !content.isEmpty()
+                ? MemberKeysetCursor.of(condition, content.get(content.size() - 1)).encode()
+                : null;
+    }
+}
@@ -1,5 +1,7 @@
 package com.study.querydsl.dto;
 
+import org.springframework.util.StringUtils;
+
 import lombok.Data;
 
 @Data
@@ -10,5 +12,16 @@ public class MemberSearchCondition {
     private Integer ageGoe; //나이가 크거나 같거나
     private Integer ageLoe; //나이가 작거나 같거나
     
-    
+    /**
+     * 조건으로 쓰이지 않는 값(null, 공백 문자열)을 null로 통일한 사본
+     * 같은 검색 결과를 내는 조건을 같은 캐시 키로 다루기 위해 사용
+     */
+    public MemberSearchCondition normalized() {
+        MemberSearchCondition normalized = new MemberSearchCondition();
+        normalized.setUserName(StringUtils.hasText(userName) ? userName : null);
+        normalized.setTeamName(StringUtils.hasText(teamName) ? teamName : null);
+        normalized.setAgeGoe(ageGoe);
+        normalized.setAgeLoe(ageLoe);
+        return normalized;
+    }
 }
@@ -1,12 +1,17 @@
 package com.study.querydsl.init;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import javax.annotation.PostConstruct;
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.Assert;
 
 import com.study.querydsl.domain.Member;
 import com.study.querydsl.domain.Team;
@@ -46,21 +51,58 @@ public class InitMember {
 }
 
 
+/**
+ * 초기 데이터 생성
+ * 
+ * 팀 init.team-count개, 회원 init.member-count명을 만든다 (부하 테스트 환경 구성시 수백만건까지 사용)
+ * - id는 시퀀스 allocationSize(50) 단위로 미리 할당받아 insert마다 시퀀스를 호출하지 않는다
+ * - hibernate.jdbc.batch_size, order_inserts 설정으로 insert를 JDBC 배치로 묶는다
+ * - init.chunk-size건마다 flush/clear 해서 영속성 컨텍스트가 커지지 않게 한다 (clear 이후 팀은 프록시로 참조)
+ */
 @Component
 class InitMemberService { 
     @PersistenceContext
     private EntityManager em;
     
+    @Value("${init.team-count:2}")
+    private int teamCount;
+    
+    @Value("${init.member-count:100}")
+    private int memberCount;
+    
+    @Value("${init.chunk-size:1000}")
+    private int chunkSize;
+    
     @Transactional
     public void init() {
-        Team teamA = new Team("teamA");
-        Team teamB = new Team("teamB");
-        em.persist(teamA);
-        em.persist(teamB);
+        Assert.isTrue(teamCount > 0, "init.team-count must be positive!");
+        Assert.isTrue(memberCount >= 0, "init.member-count must not be negative!");
+        Assert.isTrue(chunkSize > 0, "init.chunk-size must be positive!");
         
-        for (int i = 0; i < 100; i++) {
-            Team team = (i % 2 == 0) ? teamA : teamB;
+        List<Long> teamIds = new ArrayList<>(teamCount);
+        for (int i = 0; i < teamCount; i++) {
+            Team team = new Team(teamName(i));
+            em.persist(team);
+            teamIds.add(team.getId());
+        }
+        em.flush();
+        em.clear();
+        
+        for (int i = 0; i < memberCount; i++) {
+            Team team = em.getReference(Team.class, teamIds.get(i % teamCount));
             em.persist(new Member("member" + i, i, team));
+            
+            if ((i + 1) % chunkSize == 0) {
+                em.flush();
+                em.clear();
+            }
         }
     }
+    
+    /**
+     * teamA, teamB ... teamZ 이후는 team26, team27 ...
+     */
+    private String teamName(int index) {
+        return index < 26 ? "team" + (char) ('A' + index) : "team" + index;
+    }
 }
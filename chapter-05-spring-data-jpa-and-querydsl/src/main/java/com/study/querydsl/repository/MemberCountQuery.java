@@ -0,0 +1,46 @@
+package com.study.querydsl.repository;
+
+import static com.study.querydsl.domain.QMember.member;
+import static com.study.querydsl.domain.QTeam.team;
+
+import org.springframework.util.StringUtils;
+
+import com.querydsl.core.types.Predicate;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.study.querydsl.dto.MemberSearchCondition;
+
+/**
+ * 회원 검색 페이징용 count 쿼리
+ * 
+ * - 엔티티 대신 member.id만 count 한다 (select count(member1.id))
+ * - team 조건(teamName)이 있을 때만 team을 조인한다
+ *   member -> team은 다대일이라 조인해도 row 수가 늘지 않으므로 조건이 없으면 조인할 필요가 없다
+ *   조건이 없는 대부분의 경우 count SQL은 member 테이블 하나만 읽는다
+ */
+public final class MemberCountQuery {
+
+    private MemberCountQuery() { }
+
+    /**
+     * fetchCount()로 실행할 count 쿼리
+     */
+    public static JPAQuery<Long> of(JPAQueryFactory queryFactory, MemberSearchCondition condition) {
+        return of(queryFactory, condition, MemberPredicates.of(condition));
+    }
+
+    /**
+     * content 쿼리에서 만든 조건(MemberPredicates.of)을 그대로 사용
+     */
+    public static JPAQuery<Long> of(JPAQueryFactory queryFactory, MemberSearchCondition condition, Predicate where) {
+        JPAQuery<Long> query = queryFactory
+                               .select(member.id)
+                               .from(member);
+        
+        if (StringUtils.hasText(condition.getTeamName())) {
+            query.leftJoin(member.team, team);
+        }
+        
+        return query.where(where);
+    }
+}
@@ -0,0 +1,253 @@
+package com.study.querydsl.repository;
+
+import static com.study.querydsl.domain.QMember.member;
+import static com.study.querydsl.domain.QTeam.team;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.persistence.EntityManager;
+
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.study.querydsl.domain.Member;
+import com.study.querydsl.domain.Team;
+import com.study.querydsl.dto.MemberDTO;
+import com.study.querydsl.dto.MemberTeamDTO;
+import com.study.querydsl.repository.support.CountCache;
+import com.study.querydsl.repository.support.PersistenceContexts;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 회원 대량 등록 (import)
+ *
+ * em.persist 대신 JDBC로 batchRows건을 한 문장으로 보낸다 (insert ... values (...), (...), ...)
+ * - memberId가 없는 레코드 : multi-row insert, id는 하이버네이트 시퀀스 생성기로 발급 (allocationSize 단위로 미리 할당, em.persist와 같은 풀 사용)
+ * - memberId가 있는 레코드 : 이미 있는 회원만 수정한다 (H2 merge into ... key (id), created_date는 변경하지 않는다)
+ *   없는 id는 IllegalArgumentException - id는 member_seq에서 발급되므로 임의의 id로 insert 하면
+ *   이후 시퀀스가 발급하는 id(em.persist, insert 경로)와 기본키가 충돌한다. 새 회원은 memberId 없이 등록한다
+ * - 팀 이름은 로컬 Map(이름 -> id)으로 찾고 처음 보는 이름만 청크마다 한 번에 조회, 없는 팀은 새로 저장한다
+ * - 스트림을 batchRows건씩 읽어서 처리하므로 레코드 수와 관계없이 메모리 사용량이 일정하다
+ * JDBC로 쓰기 때문에 엔티티 리스너를 거치지 않는다 - count 캐시는 직접 비우고, merge 한 회원이 영속성 컨텍스트에 있으면 detach 한다
+ */
+@Component
+public class MemberImporter {
+
+    private static final String INSERT = "insert into member (id, user_name, age, team_id, created_date, updated_date) values ";
+    private static final String INSERT_ROW = "(?, ?, ?, ?, ?, ?)";
+    private static final String MERGE = "merge into member (id, user_name, age, team_id, updated_date) key (id) values ";
+    private static final String MERGE_ROW = "(?, ?, ?, ?, ?)";
+
+    private final EntityManager em;
+    private final JPAQueryFactory queryFactory;
+    private final JdbcTemplate jdbcTemplate;
+    private final CountCache countCache;
+    private final int batchRows;
+
+    public MemberImporter(EntityManager em, JdbcTemplate jdbcTemplate, CountCache countCache,
+                          @Value("${querydsl.import.batch-rows:500}") int batchRows) {
+        Assert.isTrue(batchRows > 0, "batchRows must be positive!");
+        this.em = em;
+        this.queryFactory = new JPAQueryFactory(em);
+        this.jdbcTemplate = jdbcTemplate;
+        this.countCache = countCache;
+        this.batchRows = batchRows;
+    }
+
+    /**
+     * 팀 없는 회원 등록
+     */
+    @Transactional
+    public Result importMembers(Stream<MemberDTO> records) {
+        return importMemberTeams(records.map(r -> new MemberTeamDTO(null, r.getUserName(), r.getAge(), null, null)));
+    }
+
+    /**
+     * 회원 등록/병합 - 팀은 teamName이 있으면 이름으로, 없으면 teamId로 지정
+     */
+    @Transactional
+    public Result importMemberTeams(Stream<MemberTeamDTO> records) {
+        em.flush(); // 영속성 컨텍스트의 변경 내용을 먼저 반영
+
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        IdentifierGenerator idGenerator = session.getFactory()
+                                                 .getMetamodel()
+                                                 .entityPersister(Member.class)
+                                                 .getIdentifierGenerator();
+        Map<String, Long> teamIds = new HashMap<>();
+        Result result = new Result();
+
+        List<MemberTeamDTO> inserts = new ArrayList<>(batchRows);
+        List<MemberTeamDTO> merges = new ArrayList<>(batchRows);
+        try {
+            Iterator<MemberTeamDTO> iterator = records.iterator();
+            while (iterator.hasNext()) {
+                MemberTeamDTO record = iterator.next();
+                if (Objects.isNull(record.getMemberId())) {
+                    inserts.add(record);
+                    if (inserts.size() == batchRows) {
+                        insert(inserts, teamIds, idGenerator, session, result);
+                    }
+                } else {
+                    merges.add(record);
+                    if (merges.size() == batchRows) {
+                        merge(merges, teamIds, result);
+                    }
+                }
+            }
+            if (!inserts.isEmpty()) {
+                insert(inserts, teamIds, idGenerator, session, result);
+            }
+            if (!merges.isEmpty()) {
+                merge(merges, teamIds, result);
+            }
+        } finally {
+            records.close();
+            countCache.invalidateAll();
+        }
+        return result;
+    }
+
+    private void insert(List<MemberTeamDTO> rows, Map<String, Long> teamIds, IdentifierGenerator idGenerator,
+            SessionImplementor session, Result result) {
+        resolveTeams(rows, teamIds, result);
+        LocalDateTime now = LocalDateTime.now();
+        Object[] args = new Object[rows.size() * 6];
+        int i = 0;
+        for (MemberTeamDTO row : rows) {
+            Serializable id = idGenerator.generate(session, null);
+            args[i++] = id;
+            args[i++] = row.getUserName();
+            args[i++] = row.getAge();
+            args[i++] = teamId(row, teamIds);
+            args[i++] = now;
+            args[i++] = now;
+        }
+        result.inserted += jdbcTemplate.update(sql(INSERT, INSERT_ROW, rows.size()), args);
+        result.statements++;
+        rows.clear();
+    }
+
+    private void merge(List<MemberTeamDTO> rows, Map<String, Long> teamIds, Result result) {
+        Set<Object> memberIds = new LinkedHashSet<>();
+        for (MemberTeamDTO row : rows) {
+            memberIds.add(row.getMemberId());
+        }
+        rejectUnknownIds(memberIds);
+        resolveTeams(rows, teamIds, result);
+        LocalDateTime now = LocalDateTime.now();
+        Object[] args = new Object[rows.size() * 5];
+        int i = 0;
+        for (MemberTeamDTO row : rows) {
+            args[i++] = row.getMemberId();
+            args[i++] = row.getUserName();
+            args[i++] = row.getAge();
+            args[i++] = teamId(row, teamIds);
+            args[i++] = now;
+        }
+        result.merged += jdbcTemplate.update(sql(MERGE, MERGE_ROW, rows.size()), args);
+        result.statements++;
+
+        List<Member> merged = new ArrayList<>();
+        for (Object managedId : PersistenceContexts.managedIds(em, Member.class)) {
+            if (memberIds.contains(managedId)) {
+                merged.add(em.find(Member.class, managedId));
+            }
+        }
+        PersistenceContexts.detach(em, merged);
+        rows.clear();
+    }
+
+    /**
+     * merge는 이미 있는 회원만 수정한다 - 없는 id가 있으면 청크를 실행하지 않는다 (트랜잭션 롤백)
+     */
+    private void rejectUnknownIds(Set<Object> memberIds) {
+        List<Long> found = queryFactory
+                           .select(member.id)
+                           .from(member)
+                           .where(member.id.in(memberIds.stream().map(Long.class::cast).collect(Collectors.toList())))
+                           .fetch();
+        if (found.size() < memberIds.size()) {
+            Set<Object> unknown = new LinkedHashSet<>(memberIds);
+            unknown.removeAll(found);
+            throw new IllegalArgumentException("unknown member ids (import new members without memberId) : " + unknown);
+        }
+    }
+
+    /**
+     * 청크에서 처음 보는 팀 이름만 한 번에 조회하고, DB에도 없는 팀은 저장한다
+     */
+    private void resolveTeams(List<MemberTeamDTO> rows, Map<String, Long> teamIds, Result result) {
+        Set<String> unknown = new LinkedHashSet<>();
+        for (MemberTeamDTO row : rows) {
+            if (StringUtils.hasText(row.getTeamName()) && !teamIds.containsKey(row.getTeamName())) {
+                unknown.add(row.getTeamName());
+            }
+        }
+        if (unknown.isEmpty()) {
+            return;
+        }
+
+        List<Tuple> found = queryFactory
+                            .select(team.id, team.name)
+                            .from(team)
+                            .where(team.name.in(unknown))
+                            .fetch();
+        for (Tuple tuple : found) {
+            teamIds.put(tuple.get(team.name), tuple.get(team.id));
+        }
+
+        boolean created = false;
+        for (String teamName : unknown) {
+            if (!teamIds.containsKey(teamName)) {
+                Team newTeam = new Team(teamName);
+                em.persist(newTeam);
+                teamIds.put(teamName, newTeam.getId());
+                result.teamsCreated++;
+                created = true;
+            }
+        }
+        if (created) {
+            em.flush(); // member insert 보다 먼저 (외래키)
+        }
+    }
+
+    private static Long teamId(MemberTeamDTO row, Map<String, Long> teamIds) {
+        return StringUtils.hasText(row.getTeamName()) ? teamIds.get(row.getTeamName()) : row.getTeamId();
+    }
+
+    private static String sql(String prefix, String row, int rows) {
+        return prefix + String.join(", ", Collections.nCopies(rows, row));
+    }
+
+    @Getter
+    @ToString
+    public static class Result {
+        private long inserted;
+        private long merged;
+        private long teamsCreated;
+        private long statements; // 실행한 insert/merge 문장 수
+    }
+}
@@ -0,0 +1,129 @@
+package com.study.querydsl.repository;
+
+import static com.study.querydsl.domain.QMember.member;
+import static com.study.querydsl.domain.QTeam.team;
+
+import java.util.Objects;
+
+import org.springframework.util.StringUtils;
+
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.ExpressionUtils;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.study.querydsl.dto.MemberSearchCondition;
+
+/**
+ * 회원 검색 조건(MemberSearchCondition) -> where절 Predicate
+ *
+ * 리포지토리마다 복사해서 쓰던 userNameEq, teamNameEq, ageGoe, ageLoe를 모은 것
+ * - of(condition)로 조건 하나를 만들어서 content 쿼리와 count 쿼리에 같이 사용한다 (요청마다 한 번만 생성)
+ * - 나이 조건은 하나로 합친다 : ageGoe == ageLoe 이면 age = ?, 둘 다 있으면 age between ? and ?
+ * - 0 ~ 150살 나이 조건(goe, loe, eq)은 미리 만들어 둔 노드를 재사용한다 (Querydsl 표현식은 불변 객체)
+ * - ageGoe > ageLoe 처럼 결과가 없는 조건은 isContradictory()로 확인하고 쿼리를 실행하지 않는다
+ *   of()는 이 경우 결과가 없는 조건(EMPTY)을 반환한다
+ * team 조건이 있으면 쿼리에서 member.team을 team으로 조인해야 한다
+ */
+public final class MemberPredicates {
+
+    /**
+     * 결과가 없는 조건 - id는 null일 수 없다
+     */
+    public static final BooleanExpression EMPTY = member.id.isNull();
+
+    private static final int MAX_CACHED_AGE = 150;
+    private static final BooleanExpression[] AGE_GOE = new BooleanExpression[MAX_CACHED_AGE + 1];
+    private static final BooleanExpression[] AGE_LOE = new BooleanExpression[MAX_CACHED_AGE + 1];
+    private static final BooleanExpression[] AGE_EQ = new BooleanExpression[MAX_CACHED_AGE + 1];
+
+    static {
+        for (int age = 0; age <= MAX_CACHED_AGE; age++) {
+            AGE_GOE[age] = member.age.goe(age);
+            AGE_LOE[age] = member.age.loe(age);
+            AGE_EQ[age] = member.age.eq(age);
+        }
+    }
+
+    private MemberPredicates() { }
+
+    /**
+     * 검색 조건 전체 - 조건이 없으면 null (where절에서 무시된다)
+     */
+    public static Predicate of(MemberSearchCondition condition) {
+        if (isContradictory(condition)) {
+            return EMPTY;
+        }
+        return ExpressionUtils.allOf(userNameEq(condition.getUserName()),
+                                     teamNameEq(condition.getTeamName()),
+                                     ageBetween(condition.getAgeGoe(), condition.getAgeLoe()));
+    }
+
+    /**
+     * 조건을 만족하는 회원이 있을 수 없는지 (ageGoe > ageLoe)
+     */
+    public static boolean isContradictory(MemberSearchCondition condition) {
+        return !Objects.isNull(condition.getAgeGoe()) && !Objects.isNull(condition.getAgeLoe())
+               && condition.getAgeGoe() > condition.getAgeLoe();
+    }
+
+    public static BooleanExpression userNameEq(String userName) {
+        return (!StringUtils.hasText(userName)) ? null : member.userName.eq(userName);
+    }
+
+    public static BooleanExpression teamNameEq(String teamName) {
+        return (!StringUtils.hasText(teamName)) ? null : team.name.eq(teamName);
+    }
+
+    public static BooleanExpression ageGoe(Integer ageGoe) {
+        if (Objects.isNull(ageGoe)) {
+            return null;
+        }
+        return isCached(ageGoe) ? AGE_GOE[ageGoe] : member.age.goe(ageGoe);
+    }
+
+    public static BooleanExpression ageLoe(Integer ageLoe) {
+        if (Objects.isNull(ageLoe)) {
+            return null;
+        }
+        return isCached(ageLoe) ? AGE_LOE[ageLoe] : member.age.loe(ageLoe);
+    }
+
+    /**
+     * 값 대신 파라미터(Param)를 넣은 조건 - 쿼리를 한 번 만들어 두고 값만 바꿔서 실행할 때 사용 (MemberSearchQueryCache)
+     */
+    public static BooleanExpression userNameEq(Expression<String> userName) {
+        return member.userName.eq(userName);
+    }
+
+    public static BooleanExpression teamNameEq(Expression<String> teamName) {
+        return team.name.eq(teamName);
+    }
+
+    public static BooleanExpression ageGoe(Expression<Integer> ageGoe) {
+        return member.age.goe(ageGoe);
+    }
+
+    public static BooleanExpression ageLoe(Expression<Integer> ageLoe) {
+        return member.age.loe(ageLoe);
+    }
+
+    /**
+     * ageGoe <= age <= ageLoe - 한쪽만 있으면 goe 또는 loe, 같으면 eq
+     */
+    public static BooleanExpression ageBetween(Integer ageGoe, Integer ageLoe) {
+        if (Objects.isNull(ageGoe)) {
+            return ageLoe(ageLoe);
+        }
+        if (Objects.isNull(ageLoe)) {
+            return ageGoe(ageGoe);
+        }
+        if (ageGoe.equals(ageLoe)) {
+            return isCached(ageGoe) ? AGE_EQ[ageGoe] : member.age.eq(ageGoe);
+        }
+        return member.age.between(ageGoe, ageLoe);
+    }
+
+    private static boolean isCached(int age) {
+        return age >= 0 && age <= MAX_CACHED_AGE;
+    }
+}
@@ -1,10 +1,14 @@
 package com.study.querydsl.repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import com.study.querydsl.domain.Member;
+import com.study.querydsl.dto.MemberKeysetSlice;
 import com.study.querydsl.dto.MemberSearchCondition;
 import com.study.querydsl.dto.MemberTeamDTO;
 
@@ -12,6 +16,9 @@ public interface MemberRepositoryCustom {
     List<MemberTeamDTO> searchByBuilder(MemberSearchCondition condition);
     List<MemberTeamDTO> searchByWhereClause(MemberSearchCondition condition);
     
+    //스트리밍 - 트랜잭션 안에서 사용하고 반드시 close
+    Stream<MemberTeamDTO> streamByWhereClause(MemberSearchCondition condition, int fetchSize);
+    
     //페이징
     Page<MemberTeamDTO> searchPageSimple(MemberSearchCondition condition, Pageable pageable);
     Page<MemberTeamDTO> searchPageComplex(MemberSearchCondition condition, Pageable pageable);
@@ -21,4 +28,13 @@ public interface MemberRepositoryCustom {
     
     //sort
     Page<MemberTeamDTO> searchPageBySort(MemberSearchCondition condition, Pageable pageable);
+    
+    //키셋(seek) 페이징 - cursor가 null이면 첫 페이지
+    MemberKeysetSlice searchSliceByKeyset(MemberSearchCondition condition, String cursor, int size);
+    
+    //회원들의 팀을 한번에 변경 - 변경한 회원 수
+    long changeTeam(Collection<Long> memberIds, Long teamId);
+    
+    //회원들의 지연 로딩 팀을 in 쿼리로 한번에 조회 - 조회한 팀 수
+    int preloadTeams(Collection<Member> members);
 }
@@ -3,62 +3,97 @@ package com.study.querydsl.repository;
 import static com.study.querydsl.domain.QMember.member;
 import static com.study.querydsl.domain.QTeam.team;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Stream;
 
 import javax.persistence.EntityManager;
 
 import com.querydsl.core.BooleanBuilder;
-import com.querydsl.core.QueryResults;
-import com.querydsl.core.types.Order;
-import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.Predicate;
 import com.querydsl.core.types.dsl.BooleanExpression;
-import com.querydsl.core.types.dsl.PathBuilder;
 import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import com.study.querydsl.domain.Member;
+import com.study.querydsl.domain.Team;
+import com.study.querydsl.dto.MemberKeysetCursor;
+import com.study.querydsl.dto.MemberKeysetSlice;
 import com.study.querydsl.dto.MemberSearchCondition;
 import com.study.querydsl.dto.MemberTeamDTO;
 import com.study.querydsl.dto.QMemberTeamDTO;
+import com.study.querydsl.repository.support.CountCache;
+import com.study.querydsl.repository.support.PersistenceContexts;
+import com.study.querydsl.repository.support.QueryMetrics;
+import com.study.querydsl.repository.support.WindowPagination;
 
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.QueryHints;
+import org.hibernate.proxy.HibernateProxy;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
 import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.Assert;
 import org.springframework.util.StringUtils;
 
+/**
+ * 검색 전용 리포지토리 - 읽기 전용 트랜잭션(@Transactional(readOnly = true))에서 실행
+ * 새 트랜잭션으로 시작하면 세션이 flush mode MANUAL, read-only로 열려서 flush 확인과 엔티티 스냅샷(변경 감지)을 하지 않는다
+ * 이미 진행 중인 트랜잭션에 참여하면 그 트랜잭션의 설정을 따른다
+ */
 @Repository
+@Transactional(readOnly = true)
 public class MemberRepositoryImpl implements MemberRepositoryCustom {
 
     private final EntityManager em;
     private final JPAQueryFactory queryFactory;
+    private final CountCache countCache;
+    private final MemberSearchQueryCache searchQueryCache;
+    private final QueryMetrics queryMetrics;
+    private final MemberSearchAnalyzer searchAnalyzer;
+    
+    private static final int IN_CHUNK_SIZE = 1000; // in 절 파라미터 수 제한
 
-    public MemberRepositoryImpl(EntityManager em) {
+    public MemberRepositoryImpl(EntityManager em, CountCache countCache, MemberSearchQueryCache searchQueryCache,
+                                QueryMetrics queryMetrics, MemberSearchAnalyzer searchAnalyzer) {
         this.em = em;
         this.queryFactory = new JPAQueryFactory(em); // 스프링 빈으로 등록해서 처리해도됨
+        this.countCache = countCache;
+        this.searchQueryCache = searchQueryCache;
+        this.queryMetrics = queryMetrics;
+        this.searchAnalyzer = searchAnalyzer;
     }
 
+    /**
+     * content와 total count를 쿼리 하나로 가져오는 페이징 (count(*) over() - WindowPagination)
+     * fetchResults()는 content, count 쿼리를 두 번 실행하고 Querydsl 5에서 Deprecated 되었다
+     * count 쿼리는 범위를 벗어난 페이지를 요청했을 때만 실행된다
+     */
     @Override
     public Page<MemberTeamDTO> searchPageSimple(MemberSearchCondition condition, Pageable pageable) {
-        QueryResults<MemberTeamDTO> results = 
+        if (isEmptyResult("searchPageSimple", condition)) {
+            return Page.empty(pageable);
+        }
+        Predicate where = MemberPredicates.of(condition);
+        JPAQuery<MemberTeamDTO> query = 
                 queryFactory
                 .select(new QMemberTeamDTO(member.id, member.userName, member.age, team.id, team.name))
                 .from(member)
                 .leftJoin(member.team, team)
-                .where(userNameEq(condition.getUserName()), 
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()), 
-                        ageLoe(condition.getAgeLoe()))
+                .where(where)
                 .offset(pageable.getOffset())
-                .limit(pageable.getPageSize())
-                .fetchResults();
-
-        List<MemberTeamDTO> content = results.getResults();
-        long total = results.getTotal();
-
-        return new PageImpl<>(content, pageable, total);
+                .limit(pageable.getPageSize());
+        return queryMetrics.record(queryName("searchPageSimple"), QueryMetrics.WINDOW, () -> 
+                WindowPagination.fetchPage(query, pageable, () -> 
+                        queryMetrics.count(queryName("searchPageSimple"), MemberCountQuery.of(queryFactory, condition, where)::fetchCount)));
     }
 
     /**
@@ -66,29 +101,21 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom {
      */
     @Override
     public Page<MemberTeamDTO> searchPageComplex(MemberSearchCondition condition, Pageable pageable) {
-        List<MemberTeamDTO> content = 
+        if (isEmptyResult("searchPageComplex", condition)) {
+            return Page.empty(pageable);
+        }
+        Predicate where = MemberPredicates.of(condition);
+        JPAQuery<MemberTeamDTO> contentQuery = 
                 queryFactory
                 .select(new QMemberTeamDTO(member.id, member.userName, member.age, team.id, team.name))
                 .from(member)
                 .leftJoin(member.team, team)
-                .where(userNameEq(condition.getUserName()), 
-                       teamNameEq(condition.getTeamName()),
-                       ageGoe(condition.getAgeGoe()), 
-                       ageLoe(condition.getAgeLoe()))
+                .where(where)
                 .offset(pageable.getOffset())
-                .limit(pageable.getPageSize())
-                .fetch();
+                .limit(pageable.getPageSize());
+        List<MemberTeamDTO> content = queryMetrics.content(queryName("searchPageComplex"), contentQuery::fetch);
 
-        long total = 
-                queryFactory
-                .select(member)
-                .from(member)
-                .leftJoin(member.team, team)
-                .where(userNameEq(condition.getUserName()), 
-                       teamNameEq(condition.getTeamName()),
-                       ageGoe(condition.getAgeGoe()), 
-                       ageLoe(condition.getAgeLoe()))
-                .fetchCount();
+        long total = queryMetrics.count(queryName("searchPageComplex"), MemberCountQuery.of(queryFactory, condition, where)::fetchCount);
 
         return new PageImpl<>(content, pageable, total);
     }
@@ -98,18 +125,19 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom {
      */
     @Override
     public Page<MemberTeamDTO> searchPageOptimal(MemberSearchCondition condition, Pageable pageable) {
-        List<MemberTeamDTO> content = 
+        if (isEmptyResult("searchPageOptimal", condition)) {
+            return Page.empty(pageable);
+        }
+        Predicate where = MemberPredicates.of(condition);
+        JPAQuery<MemberTeamDTO> contentQuery = 
                 queryFactory
                 .select(new QMemberTeamDTO(member.id, member.userName, member.age, team.id, team.name))
                 .from(member)
                 .leftJoin(member.team, team)
-                .where(userNameEq(condition.getUserName()), 
-                       teamNameEq(condition.getTeamName()),
-                       ageGoe(condition.getAgeGoe()), 
-                       ageLoe(condition.getAgeLoe()))
+                .where(where)
                 .offset(pageable.getOffset())
-                .limit(pageable.getPageSize())
-                .fetch();
+                .limit(pageable.getPageSize());
+        List<MemberTeamDTO> content = queryMetrics.content(queryName("searchPageOptimal"), contentQuery::fetch);
 
         /**
          * 람다를 이용해서 count 쿼리가 조건에 따라 호출되어 쿼리 최적화
@@ -118,56 +146,83 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom {
          * count 쿼리가 생략 가능한 경우 생략해서 처리
          * - 페이지 시작이면서 컨텐츠 사이즈가 페이지 사이즈보다 작을 때
          * - 마지막 페이지 일 때 (offset + 컨텐츠 사이즈를 더해서 전체 사이즈 구함)
+         * 
+         * count 쿼리가 필요한 경우에도 같은 검색 조건의 count는 CountCache에서 재사용
          */
-        JPAQuery<Member> countQuery = queryFactory
-                    .select(member)
-                    .from(member)
-                    .leftJoin(member.team, team)
-                    .where(userNameEq(condition.getUserName()), 
-                           teamNameEq(condition.getTeamName()),
-                           ageGoe(condition.getAgeGoe()), 
-                           ageLoe(condition.getAgeLoe()));
-
-        return PageableExecutionUtils.getPage(content, pageable, countQuery::fetchCount);
+        JPAQuery<Long> countQuery = MemberCountQuery.of(queryFactory, condition, where);
+
+        Object countKey = CountCache.key("searchPageOptimal", condition.normalized());
+        return PageableExecutionUtils.getPage(content, pageable, () -> 
+                countCache.get(countKey, () -> queryMetrics.count(queryName("searchPageOptimal"), countQuery::fetchCount)));
     }
 
     /**
      * sorting (정렬)
+     * 허용된 정렬 키만 사용 (MemberSortRegistry) - team.name 으로도 정렬 가능, 마지막에 member.id 정렬 추가
      */
     @Override
     public Page<MemberTeamDTO> searchPageBySort(MemberSearchCondition condition, Pageable pageable) {
+        if (isEmptyResult("searchPageBySort", condition)) {
+            return Page.empty(pageable);
+        }
+        Predicate where = MemberPredicates.of(condition);
         JPAQuery<MemberTeamDTO> query = 
                 queryFactory
                 .select(new QMemberTeamDTO(member.id, member.userName, member.age, team.id, team.name))
                 .from(member)
-                .where(userNameEq(condition.getUserName()), 
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()), 
-                        ageLoe(condition.getAgeLoe()));
-        
-        pageable.getSort().forEach(sort -> {
-            Sort.Order o = sort;
-            PathBuilder pathBuilder = new PathBuilder(member.getType(), member.getMetadata());
-            query.orderBy(new OrderSpecifier(o.isAscending() ? Order.ASC : Order.DESC, pathBuilder.get(o.getProperty())));
-        });
+                .leftJoin(member.team, team)
+                .where(where)
+                .orderBy(MemberSortRegistry.toOrderSpecifiers(pageable.getSort()))
+                .offset(pageable.getOffset())
+                .limit(pageable.getPageSize());
         
-        List<MemberTeamDTO> content = query.fetch();
+        List<MemberTeamDTO> content = queryMetrics.content(queryName("searchPageBySort"), query::fetch);
         
-        return PageableExecutionUtils.getPage(content, pageable, () -> {
-            return queryFactory
-                    .select(member)
-                    .from(member)
-                    .leftJoin(member.team, team)
-                    .where(userNameEq(condition.getUserName()), 
-                           teamNameEq(condition.getTeamName()),
-                           ageGoe(condition.getAgeGoe()), 
-                           ageLoe(condition.getAgeLoe()))
-                    .fetchCount();
-        });
+        return PageableExecutionUtils.getPage(content, pageable, () -> 
+                queryMetrics.count(queryName("searchPageBySort"), MemberCountQuery.of(queryFactory, condition, where)::fetchCount));
+    }
+
+    /**
+     * 키셋(seek) 페이징
+     * offset으로 앞의 행을 읽고 버리는 대신 마지막으로 읽은 (age, id) 다음부터 읽으므로
+     * 깊은 페이지도 첫 페이지와 비용이 같다
+     * 
+     * 다음 페이지 존재 여부는 size + 1건을 조회해서 판단한다 (count 쿼리 없음)
+     * size는 1 ~ MemberKeysetSlice.MAX_SIZE (벗어나면 IllegalArgumentException)
+     * 커서는 만들 때와 같은 검색 조건으로만 사용할 수 있다 (다르면 IllegalArgumentException)
+     */
+    @Override
+    public MemberKeysetSlice searchSliceByKeyset(MemberSearchCondition condition, String cursor, int size) {
+        Assert.isTrue(size > 0 && size <= MemberKeysetSlice.MAX_SIZE,
+                      "size must be between 1 and " + MemberKeysetSlice.MAX_SIZE + "!");
+        if (isEmptyResult("searchSliceByKeyset", condition)) {
+            return new MemberKeysetSlice(condition, Collections.emptyList(), size, false);
+        }
+        MemberKeysetCursor after = StringUtils.hasText(cursor) ? MemberKeysetCursor.decode(cursor) : null;
+        Assert.isTrue(Objects.isNull(after) || after.isFor(condition), "cursor does not match the search condition!");
+        JPAQuery<MemberTeamDTO> query = 
+                queryFactory
+                .select(new QMemberTeamDTO(member.id, member.userName, member.age, team.id, team.name))
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(MemberPredicates.of(condition),
+                       afterCursor(after))
+                .orderBy(member.age.asc().nullsFirst(), member.id.asc())
+                .limit(size + 1);
+        List<MemberTeamDTO> content = queryMetrics.content(queryName("searchSliceByKeyset"), query::fetch);
+
+        boolean hasNext = content.size() > size;
+        if (hasNext) {
+            content = new ArrayList<>(content.subList(0, size));
+        }
+        return new MemberKeysetSlice(condition, content, size, hasNext);
     }
 
     @Override
     public List<MemberTeamDTO> searchByBuilder(MemberSearchCondition condition) {
+        if (isEmptyResult("searchByBuilder", condition)) {
+            return Collections.emptyList();
+        }
         BooleanBuilder builder = new BooleanBuilder();
         if (StringUtils.hasText(condition.getUserName())) {
             builder.and(member.userName.eq(condition.getUserName()));
@@ -184,43 +239,164 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom {
         if (!Objects.isNull(condition.getAgeLoe())) {
             builder.and(member.age.loe(condition.getAgeLoe()));
         }
-        return queryFactory
+        JPAQuery<MemberTeamDTO> query = 
+                queryFactory
                 .select(new QMemberTeamDTO(member.id, member.userName, member.age, team.id, team.name))
                 .from(member)
                 .leftJoin(member.team, team)
-                .where(builder)
-                .fetch();
+                .where(builder);
+        return queryMetrics.content(queryName("searchByBuilder"), query::fetch);
     }
 
+    /**
+     * 조건 조합별로 미리 직렬화한 JPQL을 재사용 (MemberSearchQueryCache)
+     * 쿼리 자체는 아래와 같다
+     * 
+     * select(new QMemberTeamDTO(member.id, member.userName, member.age, team.id, team.name))
+     * .from(member)
+     * .leftJoin(member.team, team)
+     * .where(MemberPredicates.of(condition))
+     */
     @Override
     public List<MemberTeamDTO> searchByWhereClause(MemberSearchCondition condition) {
+        if (isEmptyResult("searchByWhereClause", condition)) {
+            return Collections.emptyList();
+        }
+        return queryMetrics.content(queryName("searchByWhereClause"), () -> searchQueryCache.fetch(condition));
+    }
+
+    /**
+     * 결과 전체를 List로 만들지 않고 한 건씩 읽는 스트림
+     * 
+     * - 하이버네이트 ScrollableResults(FORWARD_ONLY)로 fetchSize건씩 DB에서 가져온다
+     * - DTO 프로젝션이라 영속성 컨텍스트에 엔티티가 쌓이지 않는다 (detach 할 대상이 없음)
+     * - 커서가 열려 있는 동안 커넥션을 잡고 있으므로 트랜잭션 안에서 사용하고 반드시 close 할 것
+     */
+    @Override
+    public Stream<MemberTeamDTO> streamByWhereClause(MemberSearchCondition condition, int fetchSize) {
+        if (isEmptyResult("streamByWhereClause", condition)) {
+            return Stream.empty();
+        }
         return queryFactory
                 .select(new QMemberTeamDTO(member.id, member.userName, member.age, team.id, team.name))
                 .from(member)
                 .leftJoin(member.team, team)
-                .where(userNameEq(condition.getUserName()), 
-                       teamNameEq(condition.getTeamName()),
-                       ageGoe(condition.getAgeGoe()), 
-                       ageLoe(condition.getAgeLoe()))
-                .fetch();
+                .where(MemberPredicates.of(condition))
+                .setHint(QueryHints.FETCH_SIZE, fetchSize)
+                .setHint(QueryHints.READ_ONLY, true)
+                .stream();
+    }
+
+    /**
+     * 회원들의 팀을 한번에 변경
+     * 
+     * - 영속성 컨텍스트에 이미 있는 회원 : changeTeam()으로 변경 (변경 감지 update - JDBC 배치로 전송)
+     * - 나머지 회원 : 조회하지 않고 update 쿼리로 변경 (in 절 1000건 단위, 수정 시각은 직접 설정)
+     *   대상 팀의 members 컬렉션이 이미 로딩되어 있으면 옮긴 회원을 조회해서 추가한다
+     * 팀 컬렉션을 로딩하지 않으므로 옮기는 회원 수에 비례하는 비용만 든다
+     * 벌크 update는 엔티티 리스너를 거치지 않으므로 count 캐시를 직접 비운다
+     */
+    @Override
+    @Transactional
+    public long changeTeam(Collection<Long> memberIds, Long teamId) {
+        Team target = em.getReference(Team.class, teamId);
+        Set<Object> managedIds = PersistenceContexts.managedIds(em, Member.class);
+        
+        long changed = 0;
+        List<Long> unmanagedIds = new ArrayList<>();
+        for (Long memberId : new LinkedHashSet<>(memberIds)) {
+            if (managedIds.contains(memberId)) {
+                em.find(Member.class, memberId).changeTeam(target);
+                changed++;
+            } else {
+                unmanagedIds.add(memberId);
+            }
+        }
+        em.flush();
+        
+        boolean addToLoadedMembers = Hibernate.isInitialized(target) && target.isMembersLoaded();
+        for (int from = 0; from < unmanagedIds.size(); from += IN_CHUNK_SIZE) {
+            List<Long> chunk = unmanagedIds.subList(from, Math.min(from + IN_CHUNK_SIZE, unmanagedIds.size()));
+            changed += queryFactory
+                       .update(member)
+                       .set(member.team, target)
+                       .set(member.updatedDate, LocalDateTime.now())
+                       .where(member.id.in(chunk))
+                       .execute();
+            if (addToLoadedMembers) {
+                queryFactory.selectFrom(member)
+                            .where(member.id.in(chunk))
+                            .fetch()
+                            .forEach(target::addMember);
+            }
+        }
+        
+        countCache.invalidateAll();
+        return changed;
     }
 
-    private BooleanExpression ageLoe(Integer ageLoe) {
-        return Objects.isNull(ageLoe) ? null : member.age.loe(ageLoe);
+    /**
+     * 회원 목록의 지연 로딩 팀(초기화 안 된 프록시)을 in 쿼리로 한번에 조회 (1000건 단위)
+     * 조회한 팀은 영속성 컨텍스트에 올라가므로 이후 member.getTeam().getName()은 쿼리를 실행하지 않는다
+     * 프록시에서 id를 읽으므로 프록시를 초기화하지 않는다
+     */
+    @Override
+    public int preloadTeams(Collection<Member> members) {
+        Set<Long> teamIds = new LinkedHashSet<>();
+        for (Member m : members) {
+            Team memberTeam = m.getTeam();
+            if (memberTeam instanceof HibernateProxy && !Hibernate.isInitialized(memberTeam)) {
+                teamIds.add((Long) ((HibernateProxy) memberTeam).getHibernateLazyInitializer().getIdentifier());
+            }
+        }
+        
+        List<Long> ids = new ArrayList<>(teamIds);
+        int loaded = 0;
+        for (int from = 0; from < ids.size(); from += IN_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + IN_CHUNK_SIZE, ids.size()));
+            loaded += queryFactory.selectFrom(team)
+                                  .where(team.id.in(chunk))
+                                  .fetch()
+                                  .size();
+        }
+        return loaded;
     }
 
-    private BooleanExpression ageGoe(Integer ageGoe) {
-        return Objects.isNull(ageGoe) ? null : member.age.goe(ageGoe);
+    /**
+     * (age, id) > (cursor.age, cursor.id) - age가 null인 행은 가장 앞(nulls first)
+     * age >= cursor.age 를 중복으로 붙인다 - or만 있으면 H2가 idx_member_age 범위 검색을 쓰지 못하고 처음부터 읽는다
+     * age가 null인 커서 뒤에는 나이가 있는 행이 모두 오므로 범위로 좁힐 수 없다
+     */
+    private BooleanExpression afterCursor(MemberKeysetCursor cursor) {
+        if (Objects.isNull(cursor)) {
+            return null;
+        }
+        if (Objects.isNull(cursor.getAge())) {
+            return member.age.isNull().and(member.id.gt(cursor.getMemberId()))
+                             .or(member.age.isNotNull());
+        }
+        return member.age.goe(cursor.getAge())
+                         .and(member.age.gt(cursor.getAge())
+                                        .or(member.age.eq(cursor.getAge()).and(member.id.gt(cursor.getMemberId()))));
     }
 
-    private BooleanExpression teamNameEq(String teamName) {
-        return (!StringUtils.hasText(teamName)) ? null : team.name.eq(teamName);
+    /**
+     * 결과가 없는 것이 확실한 검색 조건(ageGoe > ageLoe, 없는 팀 이름)이면 쿼리를 실행하지 않는다 (MemberSearchAnalyzer)
+     */
+    private boolean isEmptyResult(String method, MemberSearchCondition condition) {
+        MemberSearchAnalyzer.Verdict verdict = searchAnalyzer.analyze(condition);
+        if (verdict.isEmptyResult()) {
+            queryMetrics.skipped(queryName(method), verdict.name());
+            return true;
+        }
+        return false;
     }
 
-    private BooleanExpression userNameEq(String userName) {
-        return (!StringUtils.hasText(userName)) ? null : member.userName.eq(userName);
+    private static String queryName(String method) {
+        return "MemberRepositoryImpl." + method;
     }
 
+
 //    BooleanBuilder를 이용하면 null 걱정 없이 체이닝이 가능하다
 //    private BooleanBuilder ageLoe(Integer ageLoe) {
 //        return Objects.isNull(ageLoe) ? new BooleanBuilder() : new BooleanBuilder(member.age.loe(ageLoe));
@@ -3,20 +3,25 @@ package com.study.querydsl.repository;
 import static com.study.querydsl.domain.QMember.member;
 import static com.study.querydsl.domain.QTeam.team;
 
+import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Objects;
+import java.util.function.Consumer;
 
-import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.jpa.JPQLQuery;
 import com.querydsl.jpa.impl.JPAQuery;
 import com.study.querydsl.domain.Member;
 import com.study.querydsl.dto.MemberSearchCondition;
+import com.study.querydsl.dto.MemberTeamDTO;
+import com.study.querydsl.dto.QMemberTeamDTO;
+import com.study.querydsl.repository.support.BulkResult;
 import com.study.querydsl.repository.support.Querydsl4RepositorySupport;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Repository;
-import org.springframework.util.StringUtils;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
 public class MemberRepositoryUsingCustomSupport extends Querydsl4RepositorySupport{
@@ -26,40 +31,40 @@ public class MemberRepositoryUsingCustomSupport extends Querydsl4RepositorySuppo
     }
     
     public List<Member> basicSelect() {
-        return select(member)
-                .from(member)
-                .fetch();
+        JPAQuery<Member> query = select(member)
+                                 .from(member);
+        return getQueryMetrics().content(queryName("basicSelect"), query::fetch);
     }
     
     public List<Member> basicSelectfrom() {
-        return selectFrom(member)
-                .fetch();
+        JPAQuery<Member> query = selectFrom(member);
+        return getQueryMetrics().content(queryName("basicSelectfrom"), query::fetch);
     }
     
     /**
      * 기존의 querydsl을 사용해서 데이터를 가져오는 방식
      */
     public Page<Member> searchPageByApplyPage(MemberSearchCondition condition, Pageable pageable) {
+        if (MemberPredicates.isContradictory(condition)) {
+            getQueryMetrics().skipped(queryName("searchPageByApplyPage"), MemberSearchAnalyzer.Verdict.CONTRADICTORY.name());
+            return Page.empty(pageable);
+        }
         JPAQuery<Member> query = selectFrom(member)
-                                .where(userNameEq(condition.getUserName()),
-                                       teamNameEq(condition.getTeamName()),
-                                       ageGoe(condition.getAgeGoe()),
-                                       ageLoe(condition.getAgeLoe()));
-        List<Member> content = getQuerydsl().applyPagination(pageable, query).fetch();
-        return PageableExecutionUtils.getPage(content, pageable, query::fetchCount);
+                                .where(MemberPredicates.of(condition));
+        JPQLQuery<Member> pagedQuery = getQuerydsl().applyPagination(pageable, query);
+        List<Member> content = getQueryMetrics().content(queryName("searchPageByApplyPage"), pagedQuery::fetch);
+        return PageableExecutionUtils.getPage(content, pageable, () -> 
+                getQueryMetrics().count(queryName("searchPageByApplyPage"), query::fetchCount));
     }
     
     /**
      * 커스텀 Support를 사용해서 데이터를 가져오는 방식
      */
     public Page<Member> applyPagination(MemberSearchCondition condition, Pageable pageable) {
-        return applyPagination(pageable, query -> 
+        return applyPagination(pageable, "applyPagination", condition.normalized(), query -> 
                     query
                     .selectFrom(member)
-                    .where(userNameEq(condition.getUserName()),
-                           teamNameEq(condition.getTeamName()),
-                           ageGoe(condition.getAgeGoe()),
-                           ageLoe(condition.getAgeLoe()))
+                    .where(MemberPredicates.of(condition))
                 );
     }
     
@@ -67,38 +72,89 @@ public class MemberRepositoryUsingCustomSupport extends Querydsl4RepositorySuppo
      * 커스텀 Support를 사용해서 데이터를 가져오는 방식 counter 쿼리 분리
      */
     public Page<Member> applyPagination2(MemberSearchCondition condition, Pageable pageable) {
-        return applyPagination(pageable, query -> 
+        return applyPagination(pageable, "applyPagination2", condition.normalized(), query -> 
                     query
                     .selectFrom(member)
-                    .where(userNameEq(condition.getUserName()),
-                           teamNameEq(condition.getTeamName()),
-                           ageGoe(condition.getAgeGoe()),
-                           ageLoe(condition.getAgeLoe())),
+                    .where(MemberPredicates.of(condition)),
                     
-                    countQuery -> 
-                    countQuery
-                    .select(member)
+                    countQuery -> MemberCountQuery.of(countQuery, condition));
+    }
+    
+    /**
+     * content 쿼리와 count 쿼리를 동시에 실행 (count는 별도 커넥션)
+     */
+    public Page<Member> applyPaginationParallel(MemberSearchCondition condition, Pageable pageable) {
+        return applyPaginationWithParallelCount(pageable, query -> 
+                    query
+                    .selectFrom(member)
+                    .leftJoin(member.team, team)
+                    .where(MemberPredicates.of(condition)),
+                    
+                    countQuery -> MemberCountQuery.of(countQuery, condition));
+    }
+    
+    /**
+     * content와 total count를 쿼리 하나로 가져오는 방식 (count(*) over())
+     */
+    public Page<MemberTeamDTO> applyPaginationWindow(MemberSearchCondition condition, Pageable pageable) {
+        return applyWindowPagination(pageable, query -> 
+                    query
+                    .select(new QMemberTeamDTO(member.id, member.userName, member.age, team.id, team.name))
                     .from(member)
                     .leftJoin(member.team, team)
-                    .where(userNameEq(condition.getUserName()), 
-                           teamNameEq(condition.getTeamName()),
-                           ageGoe(condition.getAgeGoe()), 
-                           ageLoe(condition.getAgeLoe())));
+                    .where(MemberPredicates.of(condition)),
+                    
+                    countQuery -> MemberCountQuery.of(countQuery, condition));
     }
     
-    private BooleanExpression ageLoe(Integer ageLoe) {
-        return Objects.isNull(ageLoe) ? null : member.age.loe(ageLoe);
+    /**
+     * 조회 전용 - 반환한 엔티티는 변경 감지 대상이 아니다
+     */
+    @Transactional(readOnly = true)
+    public List<Member> searchReadOnly(MemberSearchCondition condition) {
+        JPAQuery<Member> query = readOnly(selectFrom(member)
+                                          .leftJoin(member.team, team)
+                                          .where(MemberPredicates.of(condition)));
+        return getQueryMetrics().content(queryName("searchReadOnly"), query::fetch);
     }
-
-    private BooleanExpression ageGoe(Integer ageGoe) {
-        return Objects.isNull(ageGoe) ? null : member.age.goe(ageGoe);
+    
+    /**
+     * 리포트용 전체 조회 - StatelessSession으로 한 건씩 처리 (영속성 컨텍스트가 커지지 않음)
+     */
+    @Transactional(readOnly = true)
+    public long scan(MemberSearchCondition condition, int fetchSize, Consumer<MemberTeamDTO> action) {
+        return scanStateless("scan", fetchSize, query -> 
+                    query
+                    .select(new QMemberTeamDTO(member.id, member.userName, member.age, team.id, team.name))
+                    .from(member)
+                    .leftJoin(member.team, team)
+                    .where(MemberPredicates.of(condition))
+                    .orderBy(member.id.asc()),
+                action);
     }
-
-    private BooleanExpression teamNameEq(String teamName) {
-        return (!StringUtils.hasText(teamName)) ? null : team.name.eq(teamName);
+    
+    /**
+     * ageGoe > ageLoe 조건(MemberPredicates.EMPTY)이면 페이징 헬퍼가 쿼리를 실행하지 않는다
+     */
+    @Override
+    protected boolean isEmptyResult(Predicate where) {
+        return MemberPredicates.EMPTY.equals(where);
     }
-
-    private BooleanExpression userNameEq(String userName) {
-        return (!StringUtils.hasText(userName)) ? null : member.userName.eq(userName);
+    
+    /**
+     * 나이가 age보다 많은 회원의 이름을 변경 - chunkSize건씩 나누어 update
+     */
+    public BulkResult renameOlderThan(int age, String userName, int chunkSize) {
+        return bulkUpdate("renameOlderThan", member, member.id, member.age.gt(age), chunkSize, update -> 
+                    update.set(member.userName, userName)
+                          .set(member.updatedDate, LocalDateTime.now()));
     }
+    
+    /**
+     * 나이가 age보다 많은 회원 삭제 - chunkSize건씩 나누어 delete
+     */
+    public BulkResult deleteOlderThan(int age, int chunkSize) {
+        return bulkDelete("deleteOlderThan", member, member.id, member.age.gt(age), chunkSize);
+    }
+    
 }
@@ -0,0 +1,44 @@
+package com.study.querydsl.repository;
+
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import com.study.querydsl.dto.MemberSearchCondition;
+import com.study.querydsl.repository.support.TeamNameCache;
+
+/**
+ * 쿼리 실행 전 검색 조건 분석 - 결과가 없는 것이 확실하면 content, count 쿼리를 실행하지 않는다
+ *
+ * - CONTRADICTORY : ageGoe > ageLoe (MemberPredicates.isContradictory)
+ * - UNKNOWN_TEAM : 존재하지 않는 팀 이름 (TeamNameCache - 팀이 너무 많아 캐시하지 않으면 판단하지 않는다)
+ * 잘못된 필터를 보내는 봇 요청이 DB까지 가지 않도록 리포지토리에서 빈 결과를 바로 반환한다
+ */
+@Component
+public class MemberSearchAnalyzer {
+
+    public enum Verdict {
+        EXECUTE,
+        CONTRADICTORY,
+        UNKNOWN_TEAM;
+
+        public boolean isEmptyResult() {
+            return this != EXECUTE;
+        }
+    }
+
+    private final TeamNameCache teamNameCache;
+
+    public MemberSearchAnalyzer(TeamNameCache teamNameCache) {
+        this.teamNameCache = teamNameCache;
+    }
+
+    public Verdict analyze(MemberSearchCondition condition) {
+        if (MemberPredicates.isContradictory(condition)) {
+            return Verdict.CONTRADICTORY;
+        }
+        if (StringUtils.hasText(condition.getTeamName()) && teamNameCache.isAbsent(condition.getTeamName())) {
+            return Verdict.UNKNOWN_TEAM;
+        }
+        return Verdict.EXECUTE;
+    }
+}
@@ -0,0 +1,156 @@
+package com.study.querydsl.repository;
+
+import static com.study.querydsl.domain.QMember.member;
+import static com.study.querydsl.domain.QTeam.team;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+
+import org.springframework.stereotype.Component;
+
+import com.querydsl.core.types.ParamExpression;
+import com.querydsl.core.types.dsl.Param;
+import com.querydsl.jpa.JPQLSerializer;
+import com.querydsl.jpa.impl.JPAProvider;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.querydsl.jpa.impl.JPAUtil;
+import com.study.querydsl.dto.MemberSearchCondition;
+import com.study.querydsl.dto.MemberTeamDTO;
+import com.study.querydsl.dto.QMemberTeamDTO;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * searchByWhereClause용 JPQL 캐시
+ * 
+ * MemberSearchCondition의 4개 조건은 있거나 없거나 둘 중 하나이므로 만들어지는 쿼리 모양은 16가지뿐이다
+ * 모양(shape)별로 값 대신 파라미터(Param)를 넣은 Querydsl 쿼리를 한 번만 JPQL로 직렬화해두고
+ * 요청마다 파라미터 값만 바인딩해서 실행한다
+ * - 요청마다 JPAQuery 생성, JPQL 직렬화를 하지 않는다
+ * - 항상 같은 JPQL 문자열을 쓰므로 하이버네이트 쿼리 플랜 캐시(HQL 파싱 결과)도 적중한다
+ * - 조건식은 MemberPredicates의 파라미터용 메소드로 만든다 (나이 조건은 모양이 바뀌지 않도록 between으로 합치지 않는다)
+ */
+@Component
+public class MemberSearchQueryCache {
+
+    private static final int USER_NAME = 1;
+    private static final int TEAM_NAME = 1 << 1;
+    private static final int AGE_GOE = 1 << 2;
+    private static final int AGE_LOE = 1 << 3;
+
+    private static final Param<String> USER_NAME_PARAM = new Param<>(String.class, "userName");
+    private static final Param<String> TEAM_NAME_PARAM = new Param<>(String.class, "teamName");
+    private static final Param<Integer> AGE_GOE_PARAM = new Param<>(Integer.class, "ageGoe");
+    private static final Param<Integer> AGE_LOE_PARAM = new Param<>(Integer.class, "ageLoe");
+
+    private static final QMemberTeamDTO PROJECTION = 
+            new QMemberTeamDTO(member.id, member.userName, member.age, team.id, team.name);
+
+    private final EntityManager em;
+    private final ConcurrentMap<Integer, CompiledQuery> compiledQueries = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public MemberSearchQueryCache(EntityManager em, MeterRegistry registry) {
+        this.em = em;
+        FunctionCounter.builder("querydsl.search.plan.cache", hits, LongAdder::sum)
+                       .description("MemberSearchQueryCache lookups")
+                       .tag("result", "hit")
+                       .register(registry);
+        FunctionCounter.builder("querydsl.search.plan.cache", misses, LongAdder::sum)
+                       .description("MemberSearchQueryCache lookups")
+                       .tag("result", "miss")
+                       .register(registry);
+    }
+
+    public List<MemberTeamDTO> fetch(MemberSearchCondition condition) {
+        if (MemberPredicates.isContradictory(condition)) {
+            return Collections.emptyList();
+        }
+        MemberSearchCondition normalized = condition.normalized();
+        int shape = shapeOf(normalized);
+        
+        CompiledQuery compiled = compiledQueries.get(shape);
+        if (compiled == null) {
+            misses.increment();
+            compiled = compiledQueries.computeIfAbsent(shape, this::compile);
+        } else {
+            hits.increment();
+        }
+        
+        Map<ParamExpression<?>, Object> values = new HashMap<>();
+        values.put(USER_NAME_PARAM, normalized.getUserName());
+        values.put(TEAM_NAME_PARAM, normalized.getTeamName());
+        values.put(AGE_GOE_PARAM, normalized.getAgeGoe());
+        values.put(AGE_LOE_PARAM, normalized.getAgeLoe());
+        
+        Query query = em.createQuery(compiled.jpql);
+        JPAUtil.setConstants(query, compiled.constantToLabel, values);
+        
+        List<?> rows = query.getResultList();
+        List<MemberTeamDTO> result = new ArrayList<>(rows.size());
+        for (Object row : rows) {
+            result.add(PROJECTION.newInstance((Object[]) row));
+        }
+        return result;
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public int size() {
+        return compiledQueries.size();
+    }
+
+    private static int shapeOf(MemberSearchCondition condition) {
+        int shape = 0;
+        if (!Objects.isNull(condition.getUserName())) shape |= USER_NAME;
+        if (!Objects.isNull(condition.getTeamName())) shape |= TEAM_NAME;
+        if (!Objects.isNull(condition.getAgeGoe())) shape |= AGE_GOE;
+        if (!Objects.isNull(condition.getAgeLoe())) shape |= AGE_LOE;
+        return shape;
+    }
+
+    private CompiledQuery compile(int shape) {
+        JPAQuery<MemberTeamDTO> query = 
+                new JPAQueryFactory(em)
+                .select(PROJECTION)
+                .from(member)
+                .leftJoin(member.team, team)
+                .where((shape & USER_NAME) == 0 ? null : MemberPredicates.userNameEq(USER_NAME_PARAM),
+                       (shape & TEAM_NAME) == 0 ? null : MemberPredicates.teamNameEq(TEAM_NAME_PARAM),
+                       (shape & AGE_GOE) == 0 ? null : MemberPredicates.ageGoe(AGE_GOE_PARAM),
+                       (shape & AGE_LOE) == 0 ? null : MemberPredicates.ageLoe(AGE_LOE_PARAM));
+        
+        JPQLSerializer serializer = new JPQLSerializer(JPAProvider.getTemplates(em), em);
+        serializer.serialize(query.getMetadata(), false, null);
+        return new CompiledQuery(serializer.toString(), new HashMap<>(serializer.getConstantToLabel()));
+    }
+
+    private static class CompiledQuery {
+        private final String jpql;
+        private final Map<Object, String> constantToLabel;
+
+        private CompiledQuery(String jpql, Map<Object, String> constantToLabel) {
+            this.jpql = jpql;
+            this.constantToLabel = constantToLabel;
+        }
+    }
+}
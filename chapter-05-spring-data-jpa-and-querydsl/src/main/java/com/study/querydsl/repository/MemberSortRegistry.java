@@ -0,0 +1,81 @@
+package com.study.querydsl.repository;
+
+import static com.study.querydsl.domain.QMember.member;
+import static com.study.querydsl.domain.QTeam.team;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.data.domain.Sort;
+
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.dsl.ComparableExpressionBase;
+
+/**
+ * 회원 검색에서 허용하는 정렬 키
+ * 
+ * 정렬 키별 OrderSpecifier(asc, desc)를 클래스 로딩 시점에 한 번만 만들어 두고 요청마다 꺼내 쓴다
+ * - PathBuilder로 요청마다 프로퍼티를 리플렉션 조회하지 않는다
+ * - 등록되지 않은 키는 IllegalArgumentException (인덱스 없는 컬럼으로 전체 정렬하는 것을 막는다)
+ * - 조인한 team의 컬럼(team.name)으로도 정렬할 수 있다 (leftJoin(member.team, team) 필요)
+ * - 마지막에 member.id를 붙여서 정렬 값이 같은 행들의 순서를 고정한다 (페이지 사이 중복/누락 방지)
+ */
+public final class MemberSortRegistry {
+
+    private static final Map<String, SortKey> SORT_KEYS = new LinkedHashMap<>();
+
+    static {
+        register("id", member.id);
+        register("userName", member.userName);
+        register("age", member.age);
+        register("teamName", team.name);
+        register("team.name", team.name);
+    }
+
+    private static final OrderSpecifier<?> TIEBREAKER = SORT_KEYS.get("id").asc;
+
+    private MemberSortRegistry() { }
+
+    private static void register(String key, ComparableExpressionBase<?> path) {
+        SORT_KEYS.put(key, new SortKey(path));
+    }
+
+    /**
+     * 허용된 정렬 키 목록
+     */
+    public static Set<String> keys() {
+        return Collections.unmodifiableSet(SORT_KEYS.keySet());
+    }
+
+    public static OrderSpecifier<?>[] toOrderSpecifiers(Sort sort) {
+        List<OrderSpecifier<?>> orders = new ArrayList<>();
+        boolean sortedById = false;
+        for (Sort.Order order : sort) {
+            SortKey sortKey = SORT_KEYS.get(order.getProperty());
+            if (sortKey == null) {
+                throw new IllegalArgumentException("unsupported sort property : " + order.getProperty() 
+                                                   + " (allowed : " + SORT_KEYS.keySet() + ")");
+            }
+            orders.add(order.isAscending() ? sortKey.asc : sortKey.desc);
+            sortedById |= sortKey.asc == TIEBREAKER;
+        }
+        if (!sortedById) {
+            orders.add(TIEBREAKER);
+        }
+        return orders.toArray(new OrderSpecifier<?>[0]);
+    }
+
+    private static class SortKey {
+        private final OrderSpecifier<?> asc;
+        private final OrderSpecifier<?> desc;
+
+        private SortKey(ComparableExpressionBase<?> path) {
+            this.asc = path.asc();
+            this.desc = path.desc();
+        }
+    }
+}
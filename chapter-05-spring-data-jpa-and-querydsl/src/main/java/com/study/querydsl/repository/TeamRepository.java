@@ -0,0 +1,24 @@
+package com.study.querydsl.repository;
+
+import java.util.Optional;
+
+import javax.persistence.QueryHint;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import com.study.querydsl.domain.Team;
+
+public interface TeamRepository extends JpaRepository<Team, Long> {
+
+    /**
+     * 팀 이름 조회 - 쿼리 캐시(team-by-name 리전) 사용
+     * 캐시에는 id만 저장되고 엔티티는 Team 2차 캐시에서 읽는다
+     * team 테이블이 변경되면 (update-timestamps 리전) 캐시된 결과는 사용하지 않는다
+     */
+    @QueryHints({
+        @QueryHint(name = "org.hibernate.cacheable", value = "true"),
+        @QueryHint(name = "org.hibernate.cacheRegion", value = "team-by-name")
+    })
+    Optional<Team> findByName(String name);
+}
@@ -0,0 +1,31 @@
+package com.study.querydsl.repository.support;
+
+import java.util.Collections;
+import java.util.List;
+
+import lombok.ToString;
+
+/**
+ * 청크 단위 벌크 연산 결과 - 청크별 처리 row 수
+ */
+@ToString
+public class BulkResult {
+
+    private final List<Long> chunkCounts;
+
+    public BulkResult(List<Long> chunkCounts) {
+        this.chunkCounts = Collections.unmodifiableList(chunkCounts);
+    }
+
+    public List<Long> getChunkCounts() {
+        return chunkCounts;
+    }
+
+    public int getChunks() {
+        return chunkCounts.size();
+    }
+
+    public long getTotal() {
+        return chunkCounts.stream().mapToLong(Long::longValue).sum();
+    }
+}
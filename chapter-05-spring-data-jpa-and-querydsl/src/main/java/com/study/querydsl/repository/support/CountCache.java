@@ -0,0 +1,125 @@
+package com.study.querydsl.repository.support;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.Assert;
+
+/**
+ * 페이징 count 쿼리 결과 캐시
+ *
+ * 같은 검색 조건으로 페이지만 넘기는 경우 total count는 거의 변하지 않으므로
+ * 조건별로 count 값을 잠깐(ttl) 보관해서 페이지마다 count 쿼리가 나가는 것을 막는다
+ * - 최대 maxSize개까지 보관하고 넘치면 가장 오래 사용하지 않은 항목부터 버린다 (LRU)
+ * - Member/Team 엔티티가 저장/수정/삭제되면 전부 비운다 ({@link CountCacheEvictListener})
+ * - 벌크 연산(update/delete execute)은 엔티티 리스너를 거치지 않으므로 직접 invalidateAll()을 호출해야 한다
+ * - 엔티티 리스너는 커밋이 아니라 flush 시점에 호출되므로 트랜잭션 안에서 비우면 트랜잭션이 끝난 뒤(커밋/롤백) 한 번 더 비운다
+ *   (flush ~ 커밋 사이에 다른 스레드가 변경 전 count를 다시 저장했을 수 있다)
+ *   그 트랜잭션 안에서는 캐시를 사용하지 않는다 - 커밋되지 않은 자기 변경이 반영된 count를 다른 요청과 공유하지 않기 위해
+ */
+@Component
+public class CountCache {
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final Map<Object, Entry> entries;
+    private long generation; // invalidateAll() 호출 횟수 - 비우는 도중 계산된 count가 다시 저장되는 것을 막는다
+
+    public CountCache(@Value("${querydsl.count-cache.max-size:1000}") int maxSize,
+                      @Value("${querydsl.count-cache.ttl:30s}") Duration ttl) {
+        Assert.isTrue(maxSize > 0, "maxSize must be positive!");
+        Assert.isTrue(!ttl.isNegative() && !ttl.isZero(), "ttl must be positive!");
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+        this.entries = new LinkedHashMap<Object, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Object, Entry> eldest) {
+                return size() > CountCache.this.maxSize;
+            }
+        };
+    }
+
+    /**
+     * 캐시 키 - 쿼리 이름과 (정규화된) 검색 조건의 조합
+     */
+    public static Object key(String queryName, Object condition) {
+        return Arrays.asList(queryName, condition);
+    }
+
+    /**
+     * 캐시된 count가 있으면 반환하고, 없거나 만료되었으면 loader로 count 쿼리를 실행해서 저장한다
+     */
+    public long get(Object key, LongSupplier loader) {
+        if (hasPendingWrites()) {
+            return loader.getAsLong();
+        }
+        long startGeneration;
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null && !entry.isExpired(System.nanoTime())) {
+                return entry.count;
+            }
+            startGeneration = generation;
+        }
+
+        long count = loader.getAsLong(); // count 쿼리는 락 밖에서 실행
+
+        synchronized (this) {
+            if (startGeneration == generation && !hasPendingWrites()) { // count 쿼리 전 auto flush로 변경이 생겼을 수 있다
+                entries.put(key, new Entry(count, System.nanoTime() + ttlNanos));
+            }
+        }
+        return count;
+    }
+
+    public void invalidateAll() {
+        clear();
+        if (TransactionSynchronizationManager.isSynchronizationActive() && !hasPendingWrites()) {
+            TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(CountCache.this);
+                    clear();
+                }
+            });
+        }
+    }
+
+    private synchronized void clear() {
+        generation++;
+        entries.clear();
+    }
+
+    /**
+     * 현재 트랜잭션에서 Member/Team을 변경했는지 (invalidateAll() 호출 이후 트랜잭션이 아직 끝나지 않음)
+     */
+    private boolean hasPendingWrites() {
+        return TransactionSynchronizationManager.hasResource(this);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private static class Entry {
+        private final long count;
+        private final long expiresAt;
+
+        private Entry(long count, long expiresAt) {
+            this.count = count;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired(long now) {
+            return now - expiresAt >= 0;
+        }
+    }
+}
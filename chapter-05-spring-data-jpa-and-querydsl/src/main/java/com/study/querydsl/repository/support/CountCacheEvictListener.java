@@ -0,0 +1,26 @@
+package com.study.querydsl.repository.support;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+/**
+ * 엔티티가 저장/수정/삭제되면 count 캐시를 비운다
+ *
+ * 스프링 부트가 하이버네이트에 SpringBeanContainer를 등록하므로 엔티티 리스너도 생성자 주입을 받을 수 있다
+ */
+public class CountCacheEvictListener {
+
+    private final CountCache countCache;
+
+    public CountCacheEvictListener(CountCache countCache) {
+        this.countCache = countCache;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void evict(Object entity) {
+        countCache.invalidateAll();
+    }
+}
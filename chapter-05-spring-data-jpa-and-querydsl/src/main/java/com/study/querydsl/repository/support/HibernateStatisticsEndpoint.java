@@ -0,0 +1,86 @@
+package com.study.querydsl.repository.support;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * 하이버네이트 통계 - /actuator/hibernate (hibernate.generate_statistics: true 필요)
+ *
+ * - 쿼리 : 실행 수, 가장 오래 걸린 쿼리와 시간(ms), prepared statement 수
+ * - 엔티티/컬렉션 : 로딩(load), 지연 로딩(fetch) 수 - fetch가 load에 비해 많으면 N+1 의심
+ * - 2차 캐시, 쿼리 캐시 : hit, miss, put, 적중률(hitRatio) - 리전별 포함
+ * DELETE /actuator/hibernate 로 통계를 초기화한다
+ * 통계 초기화와 쿼리 SQL 문자열(executionMaxTimeQuery)이 있으므로 인증 없이 웹에 노출하지 않는다 (prod 프로파일은 노출 목록에서 제외)
+ * 시계열로 보려면 /actuator/prometheus 의 hibernate.* 메트릭 (hibernate-micrometer)
+ */
+@Component
+@Endpoint(id = "hibernate")
+public class HibernateStatisticsEndpoint {
+
+    private final Statistics statistics;
+
+    public HibernateStatisticsEndpoint(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @ReadOperation
+    public Map<String, Object> statistics() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", statistics.isStatisticsEnabled());
+
+        Map<String, Object> queries = new LinkedHashMap<>();
+        queries.put("executions", statistics.getQueryExecutionCount());
+        queries.put("executionMaxTimeMs", statistics.getQueryExecutionMaxTime());
+        queries.put("executionMaxTimeQuery", statistics.getQueryExecutionMaxTimeQueryString());
+        queries.put("preparedStatements", statistics.getPrepareStatementCount());
+        result.put("queries", queries);
+
+        Map<String, Object> entities = new LinkedHashMap<>();
+        entities.put("loads", statistics.getEntityLoadCount());
+        entities.put("fetches", statistics.getEntityFetchCount());
+        entities.put("collectionLoads", statistics.getCollectionLoadCount());
+        entities.put("collectionFetches", statistics.getCollectionFetchCount());
+        result.put("entities", entities);
+
+        result.put("secondLevelCache", cache(statistics.getSecondLevelCacheHitCount(),
+                                             statistics.getSecondLevelCacheMissCount(),
+                                             statistics.getSecondLevelCachePutCount()));
+        result.put("queryCache", cache(statistics.getQueryCacheHitCount(),
+                                       statistics.getQueryCacheMissCount(),
+                                       statistics.getQueryCachePutCount()));
+
+        Map<String, Object> regions = new LinkedHashMap<>();
+        for (String regionName : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics region = statistics.getCacheRegionStatistics(regionName);
+            if (region != null) {
+                regions.put(regionName, cache(region.getHitCount(), region.getMissCount(), region.getPutCount()));
+            }
+        }
+        result.put("cacheRegions", regions);
+        return result;
+    }
+
+    @DeleteOperation
+    public void reset() {
+        statistics.clear();
+    }
+
+    private static Map<String, Object> cache(long hits, long misses, long puts) {
+        Map<String, Object> cache = new LinkedHashMap<>();
+        cache.put("hits", hits);
+        cache.put("misses", misses);
+        cache.put("puts", puts);
+        cache.put("hitRatio", hits + misses == 0 ? 0.0 : (double) hits / (hits + misses));
+        return cache;
+    }
+}
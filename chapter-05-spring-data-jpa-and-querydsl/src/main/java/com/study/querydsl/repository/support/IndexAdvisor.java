@@ -0,0 +1,301 @@
+package com.study.querydsl.repository.support;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import javax.persistence.Column;
+import javax.persistence.Id;
+import javax.persistence.JoinColumn;
+import javax.persistence.Table;
+
+import com.querydsl.core.JoinExpression;
+import com.querydsl.core.QueryMetadata;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.Operation;
+import com.querydsl.core.types.Operator;
+import com.querydsl.core.types.Ops;
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.PathType;
+import com.querydsl.jpa.JPQLQuery;
+
+/**
+ * 리포지토리가 만든 쿼리의 where/join/order by를 분석해서 필요한 인덱스를 제안한다
+ *
+ * 테이블별로 [동등 조건 컬럼 하나, 범위 조건 컬럼 하나] 조합을 후보로 만든다
+ * - 동등(eq, in) 조건 컬럼이 여러개면 각각 따로 후보를 만든다 (DB는 테이블당 인덱스 하나만 사용하고 나머지는 필터링)
+ * - 범위(goe, loe, gt, lt, between) 조건은 첫번째 컬럼만 사용 (범위 뒤의 컬럼은 인덱스로 좁힐 수 없다)
+ * - 조인 대상(team)에 조건이 있으면 조인 컬럼(member.team_id)을 동등 조건으로 본다 (team을 먼저 읽고 member를 찾는다)
+ * - 해당 테이블에 조건이 없으면 order by 첫번째 컬럼으로 후보를 만든다 (정렬 후 limit)
+ * - or 조건 아래의 컬럼은 인덱스 하나로 처리할 수 없으므로 무시
+ * 다른 후보의 앞부분(prefix)과 같은 후보와 기본키로 시작하는 후보는 제외한다
+ *
+ * 테이블/컬럼 이름은 @Table, @Column, @JoinColumn이 없으면 스프링 부트 기본 전략(카멜 케이스 → 스네이크 케이스)을 따른다
+ */
+public class IndexAdvisor {
+
+    private final Set<IndexProposal> candidates = new LinkedHashSet<>();
+
+    public IndexAdvisor analyze(JPQLQuery<?> query) {
+        QueryMetadata metadata = query.getMetadata();
+        Map<String, Class<?>> entities = new HashMap<>();
+        Map<String, Path<?>> joinedBy = new HashMap<>(); // 조인 alias -> 조인 경로 (team -> member.team)
+        for (JoinExpression join : metadata.getJoins()) {
+            Expression<?> target = join.getTarget();
+            if (target instanceof Operation && ((Operation<?>) target).getOperator() == Ops.ALIAS) {
+                Path<?> association = (Path<?>) ((Operation<?>) target).getArg(0);
+                Path<?> alias = (Path<?>) ((Operation<?>) target).getArg(1);
+                entities.put(alias.toString(), alias.getType());
+                joinedBy.put(alias.toString(), association);
+            } else if (target instanceof Path) {
+                entities.put(target.toString(), target.getType());
+            }
+        }
+
+        Map<String, Columns> tables = new LinkedHashMap<>();
+        if (metadata.getWhere() != null) {
+            collect(metadata.getWhere(), entities, tables);
+        }
+        for (Map.Entry<String, Path<?>> join : joinedBy.entrySet()) {
+            Class<?> joined = entities.get(join.getKey());
+            if (tables.containsKey(tableName(joined))) {
+                Path<?> association = join.getValue();
+                Path<?> owner = association.getMetadata().getParent();
+                columns(tables, owner.getType()).equality.add(joinColumnName(owner.getType(), association));
+            }
+        }
+        for (OrderSpecifier<?> order : metadata.getOrderBy()) {
+            if (order.getTarget() instanceof Path) {
+                Path<?> path = (Path<?>) order.getTarget();
+                Class<?> entity = entities.get(path.getRoot().toString());
+                if (entity != null && !tables.containsKey(tableName(entity))) {
+                    tables.computeIfAbsent(tableName(entity), t -> new Columns(entity)).sort.add(columnName(entity, path));
+                }
+            }
+        }
+
+        for (Map.Entry<String, Columns> table : tables.entrySet()) {
+            Columns columns = table.getValue();
+            String range = columns.range.isEmpty() ? null : columns.range.iterator().next();
+            if (!columns.equality.isEmpty()) {
+                columns.equality.forEach(eq -> propose(table.getKey(), columns.primaryKey, eq, range));
+            } else if (range != null) {
+                propose(table.getKey(), columns.primaryKey, range, null);
+            } else if (!columns.sort.isEmpty()) {
+                propose(table.getKey(), columns.primaryKey, columns.sort.iterator().next(), null);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * 제안 인덱스 - 다른 제안의 앞부분과 같은 제안은 제외
+     */
+    public List<IndexProposal> proposals() {
+        return candidates.stream()
+                         .filter(c -> candidates.stream().noneMatch(other -> other != c && other.covers(c)))
+                         .collect(Collectors.toList());
+    }
+
+    /**
+     * 마이그레이션 스크립트 (create index)
+     */
+    public String migrationScript() {
+        return proposals().stream()
+                          .map(IndexProposal::toDdl)
+                          .collect(Collectors.joining(System.lineSeparator()));
+    }
+
+    private void propose(String table, String primaryKey, String leading, String range) {
+        if (leading.equals(primaryKey)) {
+            return;
+        }
+        List<String> columns = new ArrayList<>();
+        columns.add(leading);
+        if (range != null && !range.equals(leading)) {
+            columns.add(range);
+        }
+        candidates.add(new IndexProposal(table, columns));
+    }
+
+    private void collect(Expression<?> expr, Map<String, Class<?>> entities, Map<String, Columns> tables) {
+        if (!(expr instanceof Operation)) {
+            return;
+        }
+        Operation<?> operation = (Operation<?>) expr;
+        Operator operator = operation.getOperator();
+        if (operator == Ops.AND) {
+            operation.getArgs().forEach(arg -> collect(arg, entities, tables));
+            return;
+        }
+        if (!(operation.getArg(0) instanceof Path)) {
+            return;
+        }
+        Path<?> path = (Path<?>) operation.getArg(0);
+        Class<?> entity = entities.get(path.getRoot().toString());
+        if (entity == null) {
+            return;
+        }
+        if (operator == Ops.EQ || operator == Ops.IN) {
+            columns(tables, entity).equality.add(columnName(entity, path));
+        } else if (operator == Ops.GOE || operator == Ops.LOE || operator == Ops.GT
+                   || operator == Ops.LT || operator == Ops.BETWEEN) {
+            columns(tables, entity).range.add(columnName(entity, path));
+        }
+    }
+
+    private static Columns columns(Map<String, Columns> tables, Class<?> entity) {
+        return tables.computeIfAbsent(tableName(entity), t -> new Columns(entity));
+    }
+
+    static String tableName(Class<?> entity) {
+        Table table = entity.getAnnotation(Table.class);
+        if (table != null && !table.name().isEmpty()) {
+            return table.name();
+        }
+        return snakeCase(entity.getSimpleName());
+    }
+
+    /**
+     * member.userName -> user_name, member.team.id -> team_id (조인 컬럼)
+     */
+    private static String columnName(Class<?> entity, Path<?> path) {
+        Path<?> parent = path.getMetadata().getParent();
+        if (parent != null && parent.getMetadata().getPathType() == PathType.PROPERTY 
+            && "id".equals(path.getMetadata().getName())) {
+            return joinColumnName(parent.getMetadata().getParent().getType(), parent);
+        }
+        Field field = findField(entity, path.getMetadata().getName());
+        Column column = field == null ? null : field.getAnnotation(Column.class);
+        if (column != null && !column.name().isEmpty()) {
+            return column.name().toLowerCase();
+        }
+        return snakeCase(path.getMetadata().getName());
+    }
+
+    private static String joinColumnName(Class<?> owner, Path<?> association) {
+        Field field = findField(owner, association.getMetadata().getName());
+        JoinColumn joinColumn = field == null ? null : field.getAnnotation(JoinColumn.class);
+        if (joinColumn != null && !joinColumn.name().isEmpty()) {
+            return joinColumn.name().toLowerCase();
+        }
+        return snakeCase(association.getMetadata().getName()) + "_id";
+    }
+
+    private static String primaryKey(Class<?> entity) {
+        for (Class<?> type = entity; type != null; type = type.getSuperclass()) {
+            for (Field field : type.getDeclaredFields()) {
+                if (field.isAnnotationPresent(Id.class)) {
+                    Column column = field.getAnnotation(Column.class);
+                    return column != null && !column.name().isEmpty() ? column.name().toLowerCase() : snakeCase(field.getName());
+                }
+            }
+        }
+        return null;
+    }
+
+    private static Field findField(Class<?> entity, String name) {
+        for (Class<?> type = entity; type != null; type = type.getSuperclass()) {
+            try {
+                return type.getDeclaredField(name);
+            } catch (NoSuchFieldException e) {
+                //상위 클래스(BaseEntity 등)에서 찾는다
+            }
+        }
+        return null;
+    }
+
+    /**
+     * SpringPhysicalNamingStrategy와 같은 규칙 - userName -> user_name
+     */
+    private static String snakeCase(String name) {
+        StringBuilder builder = new StringBuilder(name.replace('.', '_'));
+        for (int i = 1; i < builder.length() - 1; i++) {
+            if (Character.isLowerCase(builder.charAt(i - 1)) && Character.isUpperCase(builder.charAt(i))
+                && Character.isLowerCase(builder.charAt(i + 1))) {
+                builder.insert(i++, '_');
+            }
+        }
+        return builder.toString().toLowerCase();
+    }
+
+    private static class Columns {
+        private final String primaryKey;
+        private final Set<String> equality = new LinkedHashSet<>();
+        private final Set<String> range = new LinkedHashSet<>();
+        private final Set<String> sort = new LinkedHashSet<>();
+
+        private Columns(Class<?> entity) {
+            this.primaryKey = primaryKey(entity);
+        }
+    }
+
+    /**
+     * 인덱스 제안 - @Index(columnList)와 같은 형식의 컬럼 목록과 create index DDL을 만든다
+     */
+    public static class IndexProposal {
+        private final String table;
+        private final List<String> columns;
+
+        public IndexProposal(String table, List<String> columns) {
+            this.table = table;
+            this.columns = List.copyOf(columns);
+        }
+
+        public String getTable() {
+            return table;
+        }
+
+        public List<String> getColumns() {
+            return columns;
+        }
+
+        public String getName() {
+            return "idx_" + table + "_" + String.join("_", columns);
+        }
+
+        public String getColumnList() {
+            return String.join(", ", columns);
+        }
+
+        public String toDdl() {
+            return "create index " + getName() + " on " + table + " (" + getColumnList() + ");";
+        }
+
+        private boolean covers(IndexProposal other) {
+            return table.equals(other.table)
+                   && columns.size() > other.columns.size()
+                   && columns.subList(0, other.columns.size()).equals(other.columns);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof IndexProposal)) {
+                return false;
+            }
+            IndexProposal that = (IndexProposal) o;
+            return table.equals(that.table) && columns.equals(that.columns);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(table, columns);
+        }
+
+        @Override
+        public String toString() {
+            return table + "(" + getColumnList() + ")";
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.study.querydsl.repository.support;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.Assert;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 페이징 count 쿼리를 content 쿼리와 동시에 실행하기 위한 전용 스레드 풀
+ *
+ * - count 쿼리는 새 읽기 전용 트랜잭션(REQUIRES_NEW)에서 실행되므로 호출 스레드와 다른 EntityManager/커넥션을 사용한다
+ * - 스레드 수와 대기 큐 크기가 고정되어 있고, 큐가 가득 차면 submit()은 null을 반환한다
+ *   호출한 쪽은 count가 필요할 때 자기 트랜잭션(커넥션)에서 직접 실행한다 - 호출 스레드가 커넥션을 하나 더 잡지 않는다
+ * - await()는 waitTimeout까지만 기다리고, 넘으면 count 작업을 취소하고 QueryTimeoutException을 던진다
+ *   count를 다시 실행하지 않는다 - DB가 느린 시점에 같은 count를 호출한 커넥션에서 한 번 더 실행하면 부하만 두 배가 된다
+ * - count 트랜잭션에는 queryTimeout을 걸어서 취소된 count도 커넥션을 queryTimeout 이상 잡고 있지 않게 한다
+ *   (cancel은 아직 시작하지 않은 작업은 실행하지 않고, 실행 중인 작업은 스레드를 interrupt 할 뿐 실행 중인 JDBC 문장은 멈추지 않는다)
+ * - Executor 타입 빈으로 등록하지 않으므로 스프링 부트의 applicationTaskExecutor 자동 설정에 영향을 주지 않는다
+ *
+ * 커넥션 풀 크기 : hikari maximum-pool-size >= 요청 스레드 수(server.tomcat.threads.max) + poolSize
+ * 요청 스레드가 모두 커넥션을 잡은 채 count를 기다려도 count 스레드가 쓸 커넥션이 남아 있어야 한다
+ */
+@Slf4j
+@Component
+public class ParallelCountExecutor implements DisposableBean {
+
+    private final ThreadPoolExecutor executor;
+    private final TransactionTemplate readOnlyTransaction;
+    private final long waitTimeoutNanos;
+
+    public ParallelCountExecutor(PlatformTransactionManager transactionManager,
+                                 @Value("${querydsl.parallel-count.pool-size:4}") int poolSize,
+                                 @Value("${querydsl.parallel-count.queue-capacity:100}") int queueCapacity,
+                                 @Value("${querydsl.parallel-count.wait-timeout:1s}") Duration waitTimeout,
+                                 @Value("${querydsl.parallel-count.query-timeout:5s}") Duration queryTimeout) {
+        Assert.isTrue(poolSize > 0, "poolSize must be positive!");
+        Assert.isTrue(queueCapacity >= 0, "queueCapacity must not be negative!");
+        Assert.isTrue(!waitTimeout.isNegative(), "waitTimeout must not be negative!");
+        Assert.isTrue(queryTimeout.getSeconds() > 0, "queryTimeout must be at least 1s!");
+        BlockingQueue<Runnable> queue = queueCapacity == 0 ? new SynchronousQueue<>() : new ArrayBlockingQueue<>(queueCapacity);
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS, queue,
+                                               new CustomizableThreadFactory("count-query-"),
+                                               new ThreadPoolExecutor.AbortPolicy());
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.readOnlyTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readOnlyTransaction.setTimeout((int) queryTimeout.getSeconds()); // 트랜잭션 안의 쿼리에 query timeout으로 적용
+        this.waitTimeoutNanos = waitTimeout.toNanos();
+    }
+
+    /**
+     * count 쿼리를 별도 스레드에서 시작 - 스레드와 큐가 모두 차 있으면 null
+     */
+    public Future<Long> submit(LongSupplier countQuery) {
+        try {
+            return executor.submit(() -> readOnlyTransaction.execute(status -> countQuery.getAsLong()));
+        } catch (RejectedExecutionException e) {
+            return null;
+        }
+    }
+
+    /**
+     * count 결과를 waitTimeout까지 기다린다 - 시간을 넘기면 작업을 취소하고 QueryTimeoutException
+     */
+    public long await(Future<Long> total) {
+        try {
+            return total.get(waitTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            total.cancel(true);
+            log.warn("parallel count did not finish in {}ms - giving up the count",
+                     TimeUnit.NANOSECONDS.toMillis(waitTimeoutNanos));
+            throw new QueryTimeoutException("count query did not finish in "
+                                            + TimeUnit.NANOSECONDS.toMillis(waitTimeoutNanos) + "ms", e);
+        } catch (InterruptedException e) {
+            total.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while waiting for count", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * 더 이상 필요 없는 count 작업 취소 - 시작 전이면 실행하지 않는다
+     */
+    public void cancel(Future<Long> total) {
+        if (total != null) {
+            total.cancel(true);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+}
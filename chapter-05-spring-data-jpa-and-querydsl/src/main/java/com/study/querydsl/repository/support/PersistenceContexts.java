@@ -0,0 +1,66 @@
+package com.study.querydsl.repository.support;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import javax.persistence.EntityManager;
+
+import org.hibernate.Session;
+import org.hibernate.collection.spi.PersistentCollection;
+import org.hibernate.engine.spi.EntityKey;
+import org.hibernate.engine.spi.SessionImplementor;
+
+/**
+ * 영속성 컨텍스트 조회 도우미
+ */
+public final class PersistenceContexts {
+
+    private PersistenceContexts() { }
+
+    /**
+     * 영속성 컨텍스트에 로딩된 엔티티의 id (초기화되지 않은 프록시는 제외)
+     * SQL을 실행하지 않는다 - 이 id로 em.find() 하면 영속성 컨텍스트의 엔티티를 그대로 반환한다
+     */
+    public static Set<Object> managedIds(EntityManager em, Class<?> entityType) {
+        Set<Object> ids = new LinkedHashSet<>();
+        for (EntityKey key : em.unwrap(Session.class).getStatistics().getEntityKeys()) {
+            if (key.getEntityName().equals(entityType.getName())) {
+                ids.add(key.getIdentifier());
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * 엔티티를 영속성 컨텍스트에서 제외 - 이미 로딩된 컬렉션(Team.members 등)에서도 뺀다
+     * 컬렉션에 남겨 두면 다음 flush 때 cascade(PERSIST_ON_FLUSH)가 detach 된 엔티티에 전파되어 예외가 발생한다
+     * (mappedBy 쪽 컬렉션은 DB에 반영되지 않으므로 컬렉션에서 빼도 SQL은 실행되지 않는다)
+     */
+    public static void detach(EntityManager em, Collection<?> entities) {
+        if (entities.isEmpty()) {
+            return;
+        }
+        Set<Object> detached = Collections.newSetFromMap(new IdentityHashMap<>());
+        detached.addAll(entities);
+        for (PersistentCollection collection : em.unwrap(SessionImplementor.class)
+                                                 .getPersistenceContext()
+                                                 .getCollectionEntries()
+                                                 .keySet()) {
+            if (!collection.wasInitialized()) {
+                continue;
+            }
+            if (collection instanceof Map) {
+                ((Map<?, ?>) collection).values().removeIf(detached::contains);
+            } else if (collection instanceof Collection) {
+                ((Collection<?>) collection).removeIf(detached::contains);
+            }
+        }
+        for (Object entity : entities) {
+            em.detach(entity);
+        }
+    }
+}
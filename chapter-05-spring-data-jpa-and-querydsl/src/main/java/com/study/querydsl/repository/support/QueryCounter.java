@@ -0,0 +1,133 @@
+package com.study.querydsl.repository.support;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 실행한 SQL 수를 세는 StatementInspector - N+1 감지
+ *
+ * start()로 연 Scope 안에서(같은 스레드) 하이버네이트가 실행한 SQL을 센다
+ * - 같은 SQL(파라미터 제외)이 repeatThreshold번 반복되면 호출 위치(stack trace)와 함께 경고 로그
+ *   지연 로딩(member.getTeam().getName() 등)을 루프에서 한 건씩 초기화하면 같은 select가 반복된다 - fetchJoin 또는 배치 페치로 해결
+ * - 테스트에서는 Scope.getCount()로 최대 쿼리 수를 검증한다
+ * - 웹 요청마다 Scope를 여는 것은 QueryCountFilter
+ * Scope가 없으면 SQL을 세지 않는다 (비용은 ThreadLocal 조회 한 번)
+ * Scope를 닫으면 닫지 않은 안쪽 Scope까지 함께 정리한다 - 풀 스레드(톰캣)에 닫힌 Scope가 남아 다음 요청을 세지 않도록
+ * SQL 종류별 실행 횟수는 Scope마다 MAX_STATEMENTS 종류까지만 보관한다 (전체 수는 계속 센다)
+ *
+ * HibernatePropertiesCustomizer로 hibernate.session_factory.statement_inspector에 이 빈을 등록한다
+ */
+@Slf4j
+@Component
+public class QueryCounter implements StatementInspector, HibernatePropertiesCustomizer {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+
+    /**
+     * Scope 하나가 반복 여부를 추적하는 SQL 종류 수 - 넘으면 새 SQL은 수만 센다
+     */
+    static final int MAX_STATEMENTS = 1000;
+
+    private final int repeatThreshold;
+
+    public QueryCounter(@Value("${querydsl.query-counter.repeat-threshold:3}") int repeatThreshold) {
+        this.repeatThreshold = repeatThreshold;
+    }
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, this);
+    }
+
+    @Override
+    public String inspect(String sql) {
+        for (Scope scope = CURRENT.get(); scope != null; scope = scope.parent) {
+            scope.record(sql);
+        }
+        return sql;
+    }
+
+    /**
+     * 현재 스레드에서 SQL 세기 시작 - try-with-resources로 닫는다 (Scope는 중첩 가능, 바깥 Scope에도 함께 센다)
+     */
+    public Scope start(String name) {
+        Scope scope = new Scope(name, CURRENT.get(), repeatThreshold);
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    public static class Scope implements AutoCloseable {
+        private final String name;
+        private final Scope parent;
+        private final int repeatThreshold;
+        private final Map<String, Integer> statements = new HashMap<>();
+        private int count;
+        private int repeated; // repeatThreshold번 이상 반복된 SQL 종류 수
+
+        private Scope(String name, Scope parent, int repeatThreshold) {
+            this.name = name;
+            this.parent = parent;
+            this.repeatThreshold = repeatThreshold;
+        }
+
+        private void record(String sql) {
+            count++;
+            if (statements.size() >= MAX_STATEMENTS && !statements.containsKey(sql)) {
+                return;
+            }
+            int executions = statements.merge(sql, 1, Integer::sum);
+            if (executions == repeatThreshold) {
+                repeated++;
+                if (parent == null) { // 중첩된 경우 가장 바깥 Scope에서 한 번만 경고
+                    log.warn("N+1 suspected in {} - same statement executed {} times: {}",
+                             name, executions, sql, new Throwable("call site"));
+                }
+            }
+        }
+
+        /**
+         * Scope 안에서 실행한 SQL 수
+         */
+        public int getCount() {
+            return count;
+        }
+
+        /**
+         * 같은 SQL이 repeatThreshold번 이상 실행된 SQL 종류 수 (0이면 N+1 없음)
+         */
+        public int getRepeated() {
+            return repeated;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * 현재 Scope부터 이 Scope까지 정리하고 바깥 Scope로 돌아간다 - 이미 정리된 Scope면 아무것도 하지 않는다
+         */
+        @Override
+        public void close() {
+            for (Scope scope = CURRENT.get(); scope != null; scope = scope.parent) {
+                if (scope == this) {
+                    if (parent == null) {
+                        CURRENT.remove();
+                    } else {
+                        CURRENT.set(parent);
+                    }
+                    return;
+                }
+            }
+        }
+    }
+}
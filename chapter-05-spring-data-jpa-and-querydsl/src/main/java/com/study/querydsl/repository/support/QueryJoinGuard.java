@@ -0,0 +1,46 @@
+package com.study.querydsl.repository.support;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import com.querydsl.core.JoinExpression;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.Operation;
+import com.querydsl.core.types.Ops;
+import com.querydsl.jpa.JPQLQuery;
+
+/**
+ * 쿼리 실행 전 조인 목록 검사
+ *
+ * from(member).leftJoin(member.team, team).from(member)... 처럼 같은 엔티티 루트(alias)를 다시 from 하거나 조인하면
+ * 조인 조건 없이 자기 자신과 카테시안 곱이 만들어져 O(n) 쿼리가 O(n²)이 된다
+ * 결과 row는 중복되지만 에러 없이 실행되기 때문에 운영에서 늦게 발견되므로 실행 전에 예외를 던진다
+ *
+ * 세타 조인 from(member, team)이나 다른 alias를 쓰는 셀프 조인 from(member, new QMember("m2"))은 허용
+ */
+public final class QueryJoinGuard {
+
+    private QueryJoinGuard() { }
+
+    public static <Q extends JPQLQuery<?>> Q verify(Q query) {
+        Set<Expression<?>> aliases = new HashSet<>();
+        for (JoinExpression join : query.getMetadata().getJoins()) {
+            Expression<?> alias = aliasOf(join.getTarget());
+            if (!aliases.add(alias)) {
+                throw new IllegalStateException("'" + alias + "' is joined more than once without a join condition"
+                                                + " (cartesian product) : " + query);
+            }
+        }
+        return query;
+    }
+
+    /**
+     * leftJoin(member.team, team)의 target은 alias(member.team, team) 연산이므로 뒤의 alias를 사용한다
+     */
+    private static Expression<?> aliasOf(Expression<?> target) {
+        if (target instanceof Operation && ((Operation<?>) target).getOperator() == Ops.ALIAS) {
+            return ((Operation<?>) target).getArg(1);
+        }
+        return target;
+    }
+}
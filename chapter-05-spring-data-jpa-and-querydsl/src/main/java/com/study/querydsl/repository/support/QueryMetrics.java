@@ -0,0 +1,99 @@
+package com.study.querydsl.repository.support;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * 리포지토리 쿼리 실행 측정 (Micrometer)
+ *
+ * - querydsl.query : 쿼리 이름(query)과 종류(type = content, count, results, scan, update, delete)별 실행 시간
+ *   percentile histogram을 같이 내보내므로 /actuator/prometheus에서 p99를 집계/알림할 수 있다
+ * - querydsl.query.rows : content 쿼리가 반환한(scan이 처리한) row 수
+ * - querydsl.query.skipped : 결과가 없는 검색 조건이라 쿼리를 실행하지 않은 횟수 (MemberSearchAnalyzer)
+ *
+ * p6spy나 org.hibernate.SQL 로그와 달리 SQL 문자열을 만들지 않고 집계가 가능하다
+ */
+@Component
+public class QueryMetrics {
+
+    public static final String CONTENT = "content";
+    public static final String COUNT = "count";
+    public static final String RESULTS = "results"; // fetchResults() - content와 count를 한번에
+    public static final String WINDOW = "window"; // count(*) over() - content와 count를 쿼리 하나로 (WindowPagination)
+    public static final String SCAN = "scan"; // StatelessSession으로 한 건씩 처리
+    public static final String UPDATE = "update"; // 벌크 update (청크마다)
+    public static final String DELETE = "delete"; // 벌크 delete (청크마다)
+
+    private final MeterRegistry registry;
+    private final ConcurrentMap<String, Timer> timers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, DistributionSummary> rows = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Counter> skipped = new ConcurrentHashMap<>();
+
+    public QueryMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public <T> List<T> content(String queryName, Supplier<List<T>> query) {
+        List<T> result = record(queryName, CONTENT, query);
+        rows(queryName).record(result.size());
+        return result;
+    }
+
+    public long count(String queryName, LongSupplier countQuery) {
+        return record(queryName, COUNT, countQuery::getAsLong);
+    }
+
+    /**
+     * 결과를 한 건씩 처리하는 쿼리 - scan은 처리한 row 수를 반환한다
+     */
+    public long scan(String queryName, LongSupplier scan) {
+        long count = record(queryName, SCAN, scan::getAsLong);
+        rows(queryName).record(count);
+        return count;
+    }
+
+    /**
+     * 쿼리를 실행하지 않고 빈 결과를 반환한 경우 - reason은 MemberSearchAnalyzer.Verdict 이름
+     */
+    public void skipped(String queryName, String reason) {
+        skipped.computeIfAbsent(queryName + '|' + reason, key -> 
+                Counter.builder("querydsl.query.skipped")
+                       .description("Queries skipped because the search condition cannot match any row")
+                       .tag("query", queryName)
+                       .tag("reason", reason)
+                       .register(registry))
+               .increment();
+    }
+
+    public <T> T record(String queryName, String type, Supplier<T> query) {
+        return timer(queryName, type).record(query);
+    }
+
+    private Timer timer(String queryName, String type) {
+        return timers.computeIfAbsent(queryName + '|' + type, key -> 
+                Timer.builder("querydsl.query")
+                     .description("Querydsl query execution time")
+                     .tag("query", queryName)
+                     .tag("type", type)
+                     .publishPercentileHistogram()
+                     .register(registry));
+    }
+
+    private DistributionSummary rows(String queryName) {
+        return rows.computeIfAbsent(queryName, key -> 
+                DistributionSummary.builder("querydsl.query.rows")
+                                   .description("Rows returned by Querydsl content queries")
+                                   .tag("query", queryName)
+                                   .register(registry));
+    }
+}
@@ -1,11 +1,23 @@
 package com.study.querydsl.repository.support;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.ToLongFunction;
 
 import javax.annotation.PostConstruct;
 import javax.persistence.EntityManager;
 
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.hibernate.StatelessSession;
+import org.hibernate.annotations.QueryHints;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -15,26 +27,45 @@ import org.springframework.data.jpa.repository.support.Querydsl;
 import org.springframework.data.querydsl.SimpleEntityPathResolver;
 import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.Assert;
 
+import com.mysema.commons.lang.CloseableIterator;
 import com.querydsl.core.types.EntityPath;
 import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.NumberPath;
 import com.querydsl.core.types.dsl.PathBuilder;
+import com.querydsl.jpa.HQLTemplates;
+import com.querydsl.jpa.JPQLQuery;
+import com.querydsl.jpa.hibernate.HibernateQuery;
+import com.querydsl.jpa.hibernate.StatelessSessionHolder;
 import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.querydsl.jpa.impl.JPAUpdateClause;
 
 /**
  * Querydsl 4.x 버전에 맞춘 Querydsl 지원 라이브러리
+ * 페이징 쿼리는 실행 전 QueryJoinGuard로 조인 목록을 검사하고 QueryMetrics로 실행 시간을 측정한다
+ * content와 count를 쿼리 하나로 가져오려면 applyWindowPagination()을 사용한다 (count(*) over())
+ * 조회 전용 쿼리는 readOnly(), 대량 조회는 scanStateless(), 대량 수정/삭제는 bulkUpdate()/bulkDelete()를 사용한다
+ * 페이징 쿼리의 where 조건이 isEmptyResult()이면 content, count 쿼리를 실행하지 않고 빈 페이지를 반환한다
  *
  * @author Younghan Kim
  * @see org.springframework.data.jpa.repository.support.QuerydslRepositorySupport
  */
 @Repository
 public abstract class Querydsl4RepositorySupport {
+    private static final String EMPTY_RESULT = "CONTRADICTORY"; // querydsl.query.skipped reason - MemberSearchAnalyzer.Verdict와 같은 이름
     private final Class domainClass;
     private Querydsl querydsl;
     private EntityManager entityManager;
     private JPAQueryFactory queryFactory;
+    private CountCache countCache;
+    private QueryMetrics queryMetrics;
+    private ParallelCountExecutor parallelCountExecutor;
+    private TransactionTemplate transactionTemplate;
 
     public Querydsl4RepositorySupport(Class<?> domainClass) {
         Assert.notNull(domainClass, "Domain class must not be null!");
@@ -54,11 +85,35 @@ public abstract class Querydsl4RepositorySupport {
         this.queryFactory = new JPAQueryFactory(entityManager);
     }
 
+    @Autowired
+    public void setCountCache(CountCache countCache) {
+        this.countCache = countCache;
+    }
+
+    @Autowired
+    public void setQueryMetrics(QueryMetrics queryMetrics) {
+        this.queryMetrics = queryMetrics;
+    }
+
+    @Autowired
+    public void setParallelCountExecutor(ParallelCountExecutor parallelCountExecutor) {
+        this.parallelCountExecutor = parallelCountExecutor;
+    }
+
+    @Autowired
+    public void setTransactionManager(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager); //PROPAGATION_REQUIRED
+    }
+
     @PostConstruct
     public void validate() {
         Assert.notNull(entityManager, "EntityManager must not be null!");
         Assert.notNull(querydsl, "Querydsl must not be null!");
         Assert.notNull(queryFactory, "QueryFactory must not be null!");
+        Assert.notNull(countCache, "CountCache must not be null!");
+        Assert.notNull(queryMetrics, "QueryMetrics must not be null!");
+        Assert.notNull(parallelCountExecutor, "ParallelCountExecutor must not be null!");
+        Assert.notNull(transactionTemplate, "TransactionTemplate must not be null!");
     }
 
     protected JPAQueryFactory getQueryFactory() {
@@ -81,17 +136,282 @@ public abstract class Querydsl4RepositorySupport {
         return getQueryFactory().selectFrom(from);
     }
 
+    /**
+     * 조회 전용 쿼리 - 하이버네이트 read-only, flush mode MANUAL 힌트
+     * 
+     * - 조회한 엔티티의 스냅샷을 만들지 않으므로 변경 감지(dirty checking) 대상이 아니다 (수정해도 update 되지 않음)
+     * - 쿼리 실행 전 영속성 컨텍스트의 변경 내용을 확인/flush 하지 않는다 (같은 트랜잭션에서 flush 안 한 변경은 보이지 않음)
+     * 메소드 전체를 조회 전용으로 하려면 @Transactional(readOnly = true)를 사용한다 (새 트랜잭션일 때 세션 전체에 같은 설정)
+     */
+    protected <T> JPAQuery<T> readOnly(JPAQuery<T> query) {
+        return query.setHint(QueryHints.READ_ONLY, true)
+                    .setHint(QueryHints.FLUSH_MODE, FlushMode.MANUAL);
+    }
+
+    /**
+     * StatelessSession으로 결과를 한 건씩 처리 (리포트, 배치 등 대량 조회)
+     * 
+     * - 1차 캐시, 변경 감지, 지연 로딩이 없는 세션이라 처리한 건수와 관계없이 영속성 컨텍스트가 커지지 않는다
+     * - 현재 트랜잭션의 커넥션을 그대로 사용하므로 트랜잭션 안에서 호출해야 한다 (flush 안 한 변경은 보이지 않음)
+     * - FORWARD_ONLY 커서로 fetchSize건씩 가져온다
+     * 반환값은 처리한 row 수
+     */
+    protected <T> long scanStateless(String method, int fetchSize, Function<JPAQueryFactory, JPAQuery<T>> query, 
+            Consumer<? super T> action) {
+        JPAQuery<T> jpaQuery = QueryJoinGuard.verify(query.apply(getQueryFactory()));
+        Session session = entityManager.unwrap(Session.class);
+        return queryMetrics.scan(queryName(method), () -> session.doReturningWork(connection -> {
+            StatelessSession statelessSession = session.getSessionFactory().openStatelessSession(connection);
+            try {
+                CloseableIterator<T> rows = new HibernateQuery<T>(new StatelessSessionHolder(statelessSession), 
+                                                                  HQLTemplates.DEFAULT, 
+                                                                  jpaQuery.getMetadata().clone())
+                                            .setFetchSize(fetchSize)
+                                            .setReadOnly(true)
+                                            .iterate();
+                try {
+                    long count = 0;
+                    while (rows.hasNext()) {
+                        action.accept(rows.next());
+                        count++;
+                    }
+                    return count;
+                } finally {
+                    rows.close();
+                }
+            } finally {
+                statelessSession.close();
+            }
+        }));
+    }
+
     protected <T> Page<T> applyPagination(Pageable pageable, Function<JPAQueryFactory, JPAQuery> contentQuery) {
+        String queryName = queryName("applyPagination");
         JPAQuery jpaQuery = contentQuery.apply(getQueryFactory());
-        List<T> content = getQuerydsl().applyPagination(pageable, jpaQuery).fetch();
-        return PageableExecutionUtils.getPage(content, pageable, jpaQuery::fetchCount);
+        if (skipEmptyResult(queryName, jpaQuery)) {
+            return Page.empty(pageable);
+        }
+        JPQLQuery pagedQuery = QueryJoinGuard.verify(getQuerydsl().applyPagination(pageable, jpaQuery));
+        List<T> content = queryMetrics.content(queryName, pagedQuery::fetch);
+        return PageableExecutionUtils.getPage(content, pageable, () -> queryMetrics.count(queryName, jpaQuery::fetchCount));
     }
 
     protected <T> Page<T> applyPagination(Pageable pageable, Function<JPAQueryFactory, JPAQuery> contentQuery,
             Function<JPAQueryFactory, JPAQuery> countQuery) {
+        String queryName = queryName("applyPagination");
         JPAQuery jpaContentQuery = contentQuery.apply(getQueryFactory());
-        List<T> content = getQuerydsl().applyPagination(pageable, jpaContentQuery).fetch();
-        JPAQuery countResult = countQuery.apply(getQueryFactory());
-        return PageableExecutionUtils.getPage(content, pageable, countResult::fetchCount);
+        if (skipEmptyResult(queryName, jpaContentQuery)) {
+            return Page.empty(pageable);
+        }
+        JPQLQuery pagedQuery = QueryJoinGuard.verify(getQuerydsl().applyPagination(pageable, jpaContentQuery));
+        List<T> content = queryMetrics.content(queryName, pagedQuery::fetch);
+        JPAQuery countResult = QueryJoinGuard.verify(countQuery.apply(getQueryFactory()));
+        return PageableExecutionUtils.getPage(content, pageable, () -> queryMetrics.count(queryName, countResult::fetchCount));
+    }
+
+    /**
+     * count 결과를 (queryName, condition) 기준으로 캐시하는 페이징
+     * queryName은 측정(QueryMetrics)시 쿼리 이름으로도 사용, condition은 정규화된 검색 조건을 넘긴다
+     */
+    protected <T> Page<T> applyPagination(Pageable pageable, String queryName, Object condition,
+            Function<JPAQueryFactory, JPAQuery> contentQuery) {
+        Object countCacheKey = CountCache.key(queryName(queryName), condition);
+        JPAQuery jpaQuery = contentQuery.apply(getQueryFactory());
+        if (skipEmptyResult(queryName(queryName), jpaQuery)) {
+            return Page.empty(pageable);
+        }
+        JPQLQuery pagedQuery = QueryJoinGuard.verify(getQuerydsl().applyPagination(pageable, jpaQuery));
+        List<T> content = queryMetrics.content(queryName(queryName), pagedQuery::fetch);
+        return PageableExecutionUtils.getPage(content, pageable, () -> 
+                countCache.get(countCacheKey, () -> queryMetrics.count(queryName(queryName), jpaQuery::fetchCount)));
+    }
+
+    protected <T> Page<T> applyPagination(Pageable pageable, String queryName, Object condition,
+            Function<JPAQueryFactory, JPAQuery> contentQuery, Function<JPAQueryFactory, JPAQuery> countQuery) {
+        Object countCacheKey = CountCache.key(queryName(queryName), condition);
+        JPAQuery jpaContentQuery = contentQuery.apply(getQueryFactory());
+        if (skipEmptyResult(queryName(queryName), jpaContentQuery)) {
+            return Page.empty(pageable);
+        }
+        JPQLQuery pagedQuery = QueryJoinGuard.verify(getQuerydsl().applyPagination(pageable, jpaContentQuery));
+        List<T> content = queryMetrics.content(queryName(queryName), pagedQuery::fetch);
+        JPAQuery countResult = QueryJoinGuard.verify(countQuery.apply(getQueryFactory()));
+        return PageableExecutionUtils.getPage(content, pageable, () -> 
+                countCache.get(countCacheKey, () -> queryMetrics.count(queryName(queryName), countResult::fetchCount)));
+    }
+
+    /**
+     * content와 total count를 쿼리 하나로 가져오는 페이징 (count(*) over(), WindowPagination)
+     * countQuery는 범위를 벗어난 페이지(조회한 row가 없음)일 때만 실행한다
+     */
+    protected <T> Page<T> applyWindowPagination(Pageable pageable, Function<JPAQueryFactory, JPAQuery<T>> contentQuery,
+            Function<JPAQueryFactory, JPAQuery> countQuery) {
+        String queryName = queryName("applyWindowPagination");
+        JPAQuery<T> jpaContentQuery = contentQuery.apply(getQueryFactory());
+        if (skipEmptyResult(queryName, jpaContentQuery)) {
+            return Page.empty(pageable);
+        }
+        JPQLQuery<T> pagedQuery = QueryJoinGuard.verify(getQuerydsl().applyPagination(pageable, jpaContentQuery));
+        return queryMetrics.record(queryName, QueryMetrics.WINDOW, () -> 
+                WindowPagination.fetchPage(pagedQuery, pageable, () -> {
+                    JPAQuery countResult = QueryJoinGuard.verify(countQuery.apply(getQueryFactory()));
+                    return queryMetrics.count(queryName, countResult::fetchCount);
+                }));
+    }
+
+    /**
+     * content 쿼리와 count 쿼리를 동시에 실행하는 페이징 (opt-in)
+     * 
+     * count 쿼리는 ParallelCountExecutor 스레드에서 별도 커넥션과 읽기 전용 트랜잭션으로 실행되므로
+     * 페이지 응답 시간이 content + count 에서 max(content, count) 로 줄어든다
+     * - count가 필요 없는 페이지(PageableExecutionUtils 조건)면 count 작업을 취소한다 (아직 시작 전이면 실행하지 않음)
+     * - count 스레드가 모두 사용 중이면 이 스레드에서 count를 실행한다
+     *   (호출한 트랜잭션의 커넥션을 그대로 사용하므로 커넥션을 추가로 잡지 않는다)
+     * - count 결과가 wait-timeout 안에 오지 않으면 QueryTimeoutException - count를 다시 실행하지 않는다 (ParallelCountExecutor)
+     * - 별도 트랜잭션이므로 호출한 트랜잭션에서 아직 커밋하지 않은 변경은 count에 보이지 않는다
+     */
+    protected <T> Page<T> applyPaginationWithParallelCount(Pageable pageable, Function<JPAQueryFactory, JPAQuery> contentQuery,
+            Function<JPAQueryFactory, JPAQuery> countQuery) {
+        String queryName = queryName("applyPaginationWithParallelCount");
+        JPAQuery jpaContentQuery = contentQuery.apply(getQueryFactory());
+        if (skipEmptyResult(queryName, jpaContentQuery)) {
+            return Page.empty(pageable);
+        }
+        LongSupplier count = () -> {
+            JPAQuery countResult = QueryJoinGuard.verify(countQuery.apply(getQueryFactory()));
+            return queryMetrics.count(queryName, countResult::fetchCount);
+        };
+        Future<Long> total = parallelCountExecutor.submit(count);
+        
+        List<T> content;
+        try {
+            JPQLQuery pagedQuery = QueryJoinGuard.verify(getQuerydsl().applyPagination(pageable, jpaContentQuery));
+            content = queryMetrics.content(queryName, pagedQuery::fetch);
+        } catch (RuntimeException e) {
+            parallelCountExecutor.cancel(total);
+            throw e;
+        }
+        
+        AtomicBoolean countUsed = new AtomicBoolean();
+        Page<T> page = PageableExecutionUtils.getPage(content, pageable, () -> {
+            countUsed.set(true);
+            return total == null ? count.getAsLong() : parallelCountExecutor.await(total);
+        });
+        if (!countUsed.get()) {
+            parallelCountExecutor.cancel(total);
+        }
+        return page;
+    }
+
+    /**
+     * 결과가 없는 것이 확실한 where 조건인지 - 기본은 false, 리포지토리에서 재정의한다 (예: MemberPredicates.EMPTY)
+     */
+    protected boolean isEmptyResult(Predicate where) {
+        return false;
+    }
+
+    /**
+     * content 쿼리의 where 조건이 isEmptyResult()이면 건너뛴 것으로 기록하고 true
+     */
+    private boolean skipEmptyResult(String queryName, JPAQuery<?> contentQuery) {
+        Predicate where = contentQuery.getMetadata().getWhere();
+        if (where != null && isEmptyResult(where)) {
+            queryMetrics.skipped(queryName, EMPTY_RESULT);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 청크 단위 벌크 update
+     * 
+     * where 조건에 맞는 id를 id 순서로 chunkSize개씩 읽어서(키셋) 청크마다 update ... where id in (...) 를 실행한다
+     * - 진행 중인 트랜잭션이 없으면 청크마다 트랜잭션을 커밋하므로 락을 청크 크기만큼만 짧게 잡는다
+     *   (진행 중인 트랜잭션이 있으면 그 트랜잭션에 참여하므로 락은 트랜잭션이 끝날 때까지 유지된다)
+     * - 시작 전에 영속성 컨텍스트를 flush 하고, 청크마다 변경된 엔티티만 영속성 컨텍스트에서 detach 한다
+     *   (em.clear()처럼 관계없는 엔티티까지 버리지 않음, 다시 조회하면 변경된 값을 읽는다)
+     * - detach 한 엔티티는 이미 로딩된 연관 컬렉션(Team.members 등)에서도 뺀다 (cascade가 detach 된 엔티티에 전파되지 않도록)
+     * - 엔티티 리스너를 거치지 않으므로 count 캐시를 비운다
+     * 
+     * 예) bulkUpdate("rename", member, member.id, member.age.gt(30), 1000, update -> update.set(member.userName, "비회원"))
+     */
+    protected <E> BulkResult bulkUpdate(String method, EntityPath<E> entity, NumberPath<Long> id, Predicate where, int chunkSize,
+            Function<JPAUpdateClause, JPAUpdateClause> assignments) {
+        return bulk(method, QueryMetrics.UPDATE, entity, id, where, chunkSize, ids -> 
+                assignments.apply(getQueryFactory().update(entity))
+                           .where(id.in(ids), where)
+                           .execute());
+    }
+
+    /**
+     * 청크 단위 벌크 delete - 동작은 bulkUpdate와 같다
+     */
+    protected <E> BulkResult bulkDelete(String method, EntityPath<E> entity, NumberPath<Long> id, Predicate where, int chunkSize) {
+        return bulk(method, QueryMetrics.DELETE, entity, id, where, chunkSize, ids -> 
+                getQueryFactory().delete(entity)
+                                 .where(id.in(ids), where)
+                                 .execute());
+    }
+
+    private BulkResult bulk(String method, String type, EntityPath<?> entity, NumberPath<Long> id, Predicate where, int chunkSize,
+            ToLongFunction<List<Long>> statement) {
+        Assert.isTrue(chunkSize > 0, "chunkSize must be positive!");
+        String queryName = queryName(method);
+        List<Long> chunkCounts = new ArrayList<>();
+        try {
+            Long lastId = null;
+            while (true) {
+                Long after = lastId;
+                long[] chunk = transactionTemplate.execute(status -> {
+                    entityManager.flush(); // 대상 엔티티의 변경 내용을 먼저 반영 (벌크 연산 결과를 덮어쓰지 않도록)
+                    List<Long> ids = getQueryFactory()
+                                     .select(id)
+                                     .from(entity)
+                                     .where(where, after == null ? null : id.gt(after))
+                                     .orderBy(id.asc())
+                                     .limit(chunkSize)
+                                     .fetch();
+                    if (ids.isEmpty()) {
+                        return null;
+                    }
+                    long count = queryMetrics.record(queryName, type, () -> statement.applyAsLong(ids));
+                    detach(entity.getType(), ids);
+                    return new long[] { ids.get(ids.size() - 1), count };
+                });
+                if (chunk == null) {
+                    break;
+                }
+                lastId = chunk[0];
+                chunkCounts.add(chunk[1]);
+            }
+        } finally {
+            countCache.invalidateAll();
+        }
+        return new BulkResult(chunkCounts);
+    }
+
+    /**
+     * 벌크 연산으로 변경된 엔티티 중 영속성 컨텍스트에 있는 것만 detach (로딩된 연관 컬렉션에서도 제외)
+     */
+    private void detach(Class<?> entityType, List<Long> ids) {
+        Set<Object> affected = new HashSet<>(ids);
+        List<Object> entities = new ArrayList<>();
+        for (Object managedId : PersistenceContexts.managedIds(entityManager, entityType)) {
+            if (affected.contains(managedId)) {
+                entities.add(entityManager.find(entityType, managedId));
+            }
+        }
+        PersistenceContexts.detach(entityManager, entities);
+    }
+
+    /**
+     * 측정용 쿼리 이름 - 리포지토리 클래스명.메소드명
+     */
+    protected String queryName(String method) {
+        return getClass().getSimpleName() + "." + method;
+    }
+
+    protected QueryMetrics getQueryMetrics() {
+        return queryMetrics;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,136 @@
+package com.study.querydsl.repository.support;
+
+import static com.study.querydsl.domain.QTeam.team;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.persistence.EntityManager;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.Assert;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+
+/**
+ * 존재하는 팀 이름 집합 캐시 - 없는 팀 이름으로 검색하면 쿼리를 실행하지 않기 위해 사용 (MemberSearchAnalyzer)
+ *
+ * - 처음 사용할 때와 ttl이 지난 뒤 team.name 전체를 한 번에 읽는다 (select team.name from Team team)
+ *   JPQL로 읽으므로 같은 트랜잭션에서 저장하고 아직 flush 하지 않은 팀도 (auto flush 후) 포함된다
+ * - 팀이 maxSize개를 넘으면 집합을 보관하지 않는다 - 이 경우 isAbsent()는 항상 false (쿼리를 그대로 실행)
+ * - Team을 저장(em.persist 시점)/수정/삭제하면 비운다 ({@link TeamNameCacheEvictListener})
+ *   트랜잭션 안이면 커밋 후에 한 번 더 비운다 (flush ~ 커밋 사이에 다른 스레드가 새 팀이 없는 집합을 읽었을 수 있다)
+ *   그 트랜잭션 안에서는 캐시를 사용하지 않는다 - 커밋되지 않은 자기 변경이 반영된 집합을 다른 요청과 공유하지 않기 위해 (CountCache와 같음)
+ * - 벌크 연산이나 JDBC로 team을 변경했다면 직접 invalidate()를 호출해야 한다
+ * 캐시가 오래되어도 "없다"고 잘못 판단하는 시간은 ttl을 넘지 않는다
+ */
+@Component
+public class TeamNameCache {
+
+    private final JPAQueryFactory queryFactory;
+    private final int maxSize;
+    private final long ttlNanos;
+
+    private volatile Snapshot snapshot;
+    private long generation; // invalidate() 호출 횟수 - 읽는 도중 비워졌으면 읽은 집합을 저장하지 않는다
+
+    public TeamNameCache(EntityManager em,
+                         @Value("${querydsl.team-name-cache.max-size:10000}") int maxSize,
+                         @Value("${querydsl.team-name-cache.ttl:60s}") Duration ttl) {
+        Assert.isTrue(maxSize > 0, "maxSize must be positive!");
+        Assert.isTrue(!ttl.isNegative() && !ttl.isZero(), "ttl must be positive!");
+        this.queryFactory = new JPAQueryFactory(em);
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    /**
+     * 이 이름의 팀이 없는 것이 확실한지 - 모르면 false
+     */
+    public boolean isAbsent(String teamName) {
+        Set<String> names = names();
+        return names != null && !names.contains(teamName);
+    }
+
+    public void invalidate() {
+        clear();
+        if (TransactionSynchronizationManager.isSynchronizationActive() && !hasPendingWrites()) {
+            TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(TeamNameCache.this);
+                    clear();
+                }
+            });
+        }
+    }
+
+    private synchronized void clear() {
+        generation++;
+        snapshot = null;
+    }
+
+    /**
+     * 현재 트랜잭션에서 Team을 변경했는지 (invalidate() 호출 이후 트랜잭션이 아직 끝나지 않음)
+     */
+    private boolean hasPendingWrites() {
+        return TransactionSynchronizationManager.hasResource(this);
+    }
+
+    /**
+     * 팀 이름 집합 - 팀이 너무 많거나 현재 트랜잭션에서 팀을 변경했으면 null
+     */
+    private Set<String> names() {
+        if (hasPendingWrites()) {
+            return null;
+        }
+        Snapshot current = snapshot;
+        if (current != null && !current.isExpired(System.nanoTime())) {
+            return current.names;
+        }
+
+        long startGeneration;
+        synchronized (this) {
+            startGeneration = generation;
+        }
+        Set<String> names = load(); // 조회는 락 밖에서 실행
+
+        synchronized (this) {
+            if (startGeneration == generation && !hasPendingWrites()) { // 조회 전 auto flush로 변경이 생겼을 수 있다
+                snapshot = new Snapshot(names, System.nanoTime() + ttlNanos);
+            }
+        }
+        return names;
+    }
+
+    private Set<String> load() {
+        List<String> names = queryFactory
+                             .select(team.name)
+                             .from(team)
+                             .where(team.name.isNotNull())
+                             .limit(maxSize + 1)
+                             .fetch();
+        return names.size() > maxSize ? null : Collections.unmodifiableSet(new HashSet<>(names));
+    }
+
+    private static class Snapshot {
+        private final Set<String> names;
+        private final long expiresAt;
+
+        private Snapshot(Set<String> names, long expiresAt) {
+            this.names = names;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired(long now) {
+            return now - expiresAt >= 0;
+        }
+    }
+}
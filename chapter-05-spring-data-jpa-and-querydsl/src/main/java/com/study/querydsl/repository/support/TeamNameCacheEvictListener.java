@@ -0,0 +1,32 @@
+package com.study.querydsl.repository.support;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+import javax.persistence.PrePersist;
+
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * 팀이 저장/수정/삭제되면 팀 이름 캐시를 비운다
+ * 저장은 flush 전에 검색할 수도 있으므로 em.persist 시점(@PrePersist)에도 비운다
+ */
+public class TeamNameCacheEvictListener {
+
+    private final ObjectProvider<TeamNameCache> teamNameCache;
+
+    /**
+     * TeamNameCache는 EntityManager를 사용하므로 리스너 생성 시점(EntityManagerFactory 생성 중)이 아니라 사용할 때 가져온다
+     */
+    public TeamNameCacheEvictListener(ObjectProvider<TeamNameCache> teamNameCache) {
+        this.teamNameCache = teamNameCache;
+    }
+
+    @PrePersist
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void evict(Object entity) {
+        teamNameCache.getObject().invalidate();
+    }
+}
@@ -0,0 +1,24 @@
+package com.study.querydsl.repository.support;
+
+import org.hibernate.boot.MetadataBuilder;
+import org.hibernate.boot.spi.MetadataBuilderContributor;
+import org.hibernate.dialect.function.SQLFunctionTemplate;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * JPQL에서 사용할 윈도우 함수 등록 (JPQL에는 over 절이 없다)
+ *
+ * - count_over() : count(*) over() - limit/offset 적용 전 전체 결과 건수를 모든 row에 붙인다
+ *
+ * hibernate.metadata_builder_contributor 설정으로 등록하므로 방언(dialect)을 바꾸지 않아도 된다
+ * H2 1.4.198 이상, MySQL 8, PostgreSQL, Oracle 등 윈도우 함수를 지원하는 DB에서 사용 가능
+ */
+public class WindowFunctionContributor implements MetadataBuilderContributor {
+
+    public static final String COUNT_OVER = "count_over";
+
+    @Override
+    public void contribute(MetadataBuilder metadataBuilder) {
+        metadataBuilder.applySqlFunction(COUNT_OVER, new SQLFunctionTemplate(StandardBasicTypes.LONG, "count(*) over()"));
+    }
+}
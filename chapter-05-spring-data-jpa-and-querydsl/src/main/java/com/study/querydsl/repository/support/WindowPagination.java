@@ -0,0 +1,118 @@
+package com.study.querydsl.repository.support;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.FactoryExpression;
+import com.querydsl.core.types.FactoryExpressionBase;
+import com.querydsl.core.types.Visitor;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.core.types.dsl.NumberTemplate;
+import com.querydsl.jpa.JPQLQuery;
+
+/**
+ * content와 total count를 쿼리 한 번으로 가져오는 페이징 (count(*) over() 윈도우 함수)
+ *
+ * select ..., count(*) over() from ... where ... limit ? offset ?
+ * - 윈도우 함수는 limit/offset 적용 전에 계산되므로 모든 row에 전체 결과 건수가 붙는다
+ * - fetchResults()(content + count 두 번 실행, Querydsl 5에서 Deprecated)와 달리 DB 왕복이 한 번이고
+ *   count를 캐시하지 않으므로 항상 최신 값이다
+ * - 조회한 row가 없으면 total을 알 수 없다 - 첫 페이지면 0, 아니면 countQuery를 실행한다 (범위를 벗어난 페이지)
+ * DB는 결과 전체를 세어야 하므로 결과가 아주 많으면 count 캐시(CountCache)를 사용하는 방식이 낫다
+ *
+ * 사용하려면 WindowFunctionContributor를 등록해야 한다 (hibernate.metadata_builder_contributor)
+ */
+public final class WindowPagination {
+
+    private static final NumberTemplate<Long> COUNT_OVER =
+            Expressions.numberTemplate(Long.class, WindowFunctionContributor.COUNT_OVER + "()");
+
+    private WindowPagination() { }
+
+    /**
+     * @param pagedQuery select, offset, limit(정렬 포함)까지 적용한 쿼리 - select절에 count_over()를 추가해서 실행한다
+     * @param countQuery 범위를 벗어난 페이지(조회한 row가 없음)일 때만 실행
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Page<T> fetchPage(JPQLQuery<T> pagedQuery, Pageable pageable, LongSupplier countQuery) {
+        Expression<T> projection = (Expression<T>) pagedQuery.getMetadata().getProjection();
+        List<Row<T>> rows = pagedQuery.select(new CountOverProjection<>(projection)).fetch();
+        return toPage(rows, pageable, countQuery);
+    }
+
+    static <T> Page<T> toPage(List<Row<T>> rows, Pageable pageable, LongSupplier countQuery) {
+        if (rows.isEmpty()) {
+            long total = pageable.isPaged() && pageable.getOffset() > 0 ? countQuery.getAsLong() : 0L;
+            return new PageImpl<>(Collections.emptyList(), pageable, total);
+        }
+        List<T> content = new ArrayList<>(rows.size());
+        for (Row<T> row : rows) {
+            content.add(row.value);
+        }
+        return new PageImpl<>(content, pageable, rows.get(0).total);
+    }
+
+    static final class Row<T> {
+        private final T value;
+        private final long total;
+
+        private Row(T value, long total) {
+            this.value = value;
+            this.total = total;
+        }
+    }
+
+    /**
+     * 원래 프로젝션의 인자 뒤에 count_over()를 붙인 프로젝션
+     * 중첩하지 않고 인자를 펼쳐서 select절에 넣는다 - (member.id, member.userName, ..., count_over())
+     */
+    static final class CountOverProjection<T> extends FactoryExpressionBase<Row<T>> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Expression<T> projection;
+        private final List<Expression<?>> args;
+
+        @SuppressWarnings("unchecked")
+        private CountOverProjection(Expression<T> projection) {
+            super((Class<? extends Row<T>>) (Class<?>) Row.class);
+            this.projection = projection;
+            List<Expression<?>> args = new ArrayList<>();
+            if (projection instanceof FactoryExpression) {
+                args.addAll(((FactoryExpression<?>) projection).getArgs());
+            } else {
+                args.add(projection);
+            }
+            args.add(COUNT_OVER);
+            this.args = Collections.unmodifiableList(args);
+        }
+
+        @Override
+        public List<Expression<?>> getArgs() {
+            return args;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Row<T> newInstance(Object... values) {
+            int last = values.length - 1;
+            T value = projection instanceof FactoryExpression
+                      ? ((FactoryExpression<T>) projection).newInstance(Arrays.copyOf(values, last))
+                      : (T) values[0];
+            return new Row<>(value, ((Number) values[last]).longValue());
+        }
+
+        @Override
+        public <R, C> R accept(Visitor<R, C> v, C context) {
+            return v.visit(this, context);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.study.querydsl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.transaction.Transactional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.study.querydsl.domain.Member;
+import com.study.querydsl.domain.Team;
+import com.study.querydsl.repository.MemberRepository;
+import com.study.querydsl.repository.MemberRepositoryUsingCustomSupport;
+import com.study.querydsl.repository.support.BulkResult;
+
+@ActiveProfiles("test")
+@SpringBootTest
+@Transactional
+class BulkOperationTest {
+
+    @Autowired
+    EntityManager em;
+    
+    @Autowired
+    MemberRepositoryUsingCustomSupport repository;
+    
+    @Autowired
+    MemberRepository memberRepository;
+    
+    @BeforeEach
+    void before() {
+        Team team1 = new Team("team1");
+        Team team2 = new Team("team2");
+        em.persist(team1);
+        em.persist(team2);
+        
+        for (int i = 1; i <= 7; i++) {
+            em.persist(new Member("member" + i, i * 10, i <= 3 ? team1 : team2));
+        }
+        em.flush();
+        em.clear();
+    }
+    
+    @Test
+    void renameInChunks() {
+        Member member1 = memberRepository.findByUserName("member1").get(0);
+        Member member5 = memberRepository.findByUserName("member5").get(0);
+        
+        BulkResult result = repository.renameOlderThan(30, "비회원", 3);
+        
+        //member4 ~ member7 : 3건, 1건
+        assertThat(result.getChunkCounts()).containsExactly(3L, 1L);
+        assertEquals(4L, result.getTotal());
+        
+        //변경된 엔티티만 영속성 컨텍스트에서 제외
+        assertThat(em.contains(member5)).isFalse();
+        assertThat(em.contains(member1)).isTrue();
+        assertEquals("비회원", em.find(Member.class, member5.getId()).getUserName());
+        
+        List<String> names = em.createQuery("select m.userName from Member m where m.age > 30", String.class)
+                               .getResultList();
+        assertThat(names).containsOnly("비회원");
+    }
+    
+    @Test
+    void renameWithLoadedTeamMembers() {
+        Team team2 = memberRepository.findByUserName("member5").get(0).getTeam();
+        assertThat(team2.getMembers()).hasSize(4); //member4 ~ member7 - 컬렉션 로딩
+        
+        repository.renameOlderThan(30, "비회원", 3);
+        
+        //detach 된 회원은 로딩된 컬렉션에서도 빠진다 - 다음 flush에서 cascade 예외가 나지 않는다
+        assertThat(team2.getMembers()).isEmpty();
+        em.flush();
+        
+        em.clear();
+        assertThat(em.find(Team.class, team2.getId()).getMembers()).extracting("userName").containsOnly("비회원");
+    }
+    
+    @Test
+    void deleteInChunks() {
+        BulkResult result = repository.deleteOlderThan(50, 1);
+        
+        assertThat(result.getChunkCounts()).containsExactly(1L, 1L);
+        assertThat(em.createQuery("select m.userName from Member m", String.class).getResultList())
+            .containsExactlyInAnyOrder("member1", "member2", "member3", "member4", "member5");
+    }
+}
@@ -0,0 +1,133 @@
+package com.study.querydsl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.study.querydsl.dto.MemberSearchCondition;
+import com.study.querydsl.repository.support.CountCache;
+
+class CountCacheTest {
+
+    @Test
+    void sameNormalizedConditionHitsCache() {
+        CountCache countCache = new CountCache(10, Duration.ofMinutes(1));
+        AtomicInteger loads = new AtomicInteger();
+        
+        MemberSearchCondition blank = new MemberSearchCondition();
+        blank.setUserName(" ");
+        blank.setAgeGoe(10);
+        MemberSearchCondition empty = new MemberSearchCondition();
+        empty.setAgeGoe(10);
+        
+        long first = countCache.get(CountCache.key("search", blank.normalized()), () -> loads.incrementAndGet() * 100L);
+        long second = countCache.get(CountCache.key("search", empty.normalized()), () -> loads.incrementAndGet() * 100L);
+        
+        assertThat(first).isEqualTo(100L);
+        assertThat(second).isEqualTo(100L);
+        assertThat(loads.get()).isEqualTo(1);
+    }
+    
+    @Test
+    void invalidateAllReloads() {
+        CountCache countCache = new CountCache(10, Duration.ofMinutes(1));
+        AtomicInteger loads = new AtomicInteger();
+        
+        countCache.get("key", loads::incrementAndGet);
+        countCache.invalidateAll();
+        long count = countCache.get("key", loads::incrementAndGet);
+        
+        assertThat(count).isEqualTo(2L);
+    }
+    
+    @Test
+    void expiredEntryReloads() throws InterruptedException {
+        CountCache countCache = new CountCache(10, Duration.ofMillis(20));
+        AtomicInteger loads = new AtomicInteger();
+        
+        countCache.get("key", loads::incrementAndGet);
+        Thread.sleep(50);
+        long count = countCache.get("key", loads::incrementAndGet);
+        
+        assertThat(count).isEqualTo(2L);
+    }
+    
+    @Test
+    void evictsLeastRecentlyUsedWhenFull() {
+        CountCache countCache = new CountCache(2, Duration.ofMinutes(1));
+        
+        countCache.get("a", () -> 1L);
+        countCache.get("b", () -> 2L);
+        countCache.get("a", () -> -1L); // a를 최근 사용으로
+        countCache.get("c", () -> 3L);  // b가 밀려남
+        
+        assertThat(countCache.size()).isEqualTo(2);
+        assertThat(countCache.get("a", () -> -1L)).isEqualTo(1L);
+        assertThat(countCache.get("b", () -> -1L)).isEqualTo(-1L);
+    }
+    
+    @Test
+    void countLoadedDuringInvalidationIsNotStored() {
+        CountCache countCache = new CountCache(10, Duration.ofMinutes(1));
+        
+        countCache.get("key", () -> {
+            countCache.invalidateAll(); // count 쿼리 실행 중 엔티티가 변경된 상황
+            return 1L;
+        });
+        
+        assertThat(countCache.size()).isZero();
+    }
+    
+    @Test
+    void transactionWithWritesDoesNotShareCount() {
+        CountCache countCache = new CountCache(10, Duration.ofMinutes(1));
+        countCache.get("key", () -> 1L);
+        
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            countCache.invalidateAll(); // flush - 커밋되지 않은 변경
+            
+            assertThat(countCache.get("key", () -> 2L)).isEqualTo(2L);
+            assertThat(countCache.size()).isZero();
+            
+            completeTransaction(TransactionSynchronization.STATUS_ROLLED_BACK);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        
+        assertThat(countCache.get("key", () -> 1L)).isEqualTo(1L);
+        assertThat(countCache.size()).isEqualTo(1);
+    }
+    
+    @Test
+    void countStoredBeforeCommitIsClearedAfterCompletion() throws InterruptedException {
+        CountCache countCache = new CountCache(10, Duration.ofMinutes(1));
+        
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            countCache.invalidateAll();
+            
+            Thread other = new Thread(() -> countCache.get("key", () -> 1L)); // 커밋 전 다른 스레드가 변경 전 count를 저장
+            other.start();
+            other.join();
+            assertThat(countCache.size()).isEqualTo(1);
+            
+            completeTransaction(TransactionSynchronization.STATUS_COMMITTED);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        
+        assertThat(countCache.size()).isZero();
+    }
+    
+    private static void completeTransaction(int status) {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCompletion(status);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.study.querydsl;
+
+import static com.study.querydsl.domain.QMember.member;
+import static com.study.querydsl.domain.QTeam.team;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.persistence.Table;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import com.querydsl.jpa.JPQLTemplates;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.study.querydsl.domain.Member;
+import com.study.querydsl.domain.Team;
+import com.study.querydsl.dto.MemberSearchCondition;
+import com.study.querydsl.repository.MemberCountQuery;
+import com.study.querydsl.repository.MemberSortRegistry;
+import com.study.querydsl.repository.support.IndexAdvisor;
+import com.study.querydsl.repository.support.IndexAdvisor.IndexProposal;
+
+class IndexAdvisorTest {
+
+    //쿼리를 만들기만 하고 실행하지 않으므로 EntityManager 없이 사용
+    JPAQueryFactory queryFactory = new JPAQueryFactory(JPQLTemplates.DEFAULT, () -> null);
+
+    @Test
+    void equalityAndRangeColumns() {
+        IndexAdvisor advisor = new IndexAdvisor().analyze(
+                new JPAQuery<Member>()
+                .select(member)
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(team.name.eq("teamA"), member.age.goe(10), member.age.loe(20)));
+        
+        assertThat(advisor.proposals()).extracting(IndexProposal::toString)
+                                       .containsExactly("team(name)", "member(team_id, age)");
+        assertThat(advisor.migrationScript())
+            .contains("create index idx_member_team_id_age on member (team_id, age);");
+    }
+    
+    @Test
+    void orConditionIsIgnored() {
+        IndexAdvisor advisor = new IndexAdvisor().analyze(
+                new JPAQuery<Member>()
+                .select(member)
+                .from(member)
+                .where(member.userName.eq("member1").or(member.age.eq(10))));
+        
+        assertThat(advisor.proposals()).isEmpty();
+    }
+    
+    /**
+     * 모든 검색 조건 조합(16가지)과 허용된 정렬 키로 만든 쿼리의 제안 인덱스가 엔티티의 @Table(indexes)와 같아야 한다
+     */
+    @Test
+    void entityIndexesMatchProposals() {
+        IndexAdvisor advisor = new IndexAdvisor();
+        for (int shape = 0; shape < 16; shape++) {
+            advisor.analyze(MemberCountQuery.of(queryFactory, condition(shape)));
+        }
+        for (String key : MemberSortRegistry.keys()) {
+            advisor.analyze(queryFactory
+                            .selectFrom(member)
+                            .leftJoin(member.team, team)
+                            .orderBy(MemberSortRegistry.toOrderSpecifiers(Sort.by(key))));
+        }
+        System.out.println(advisor.migrationScript());
+        
+        List<String> declared = Stream.of(Member.class, Team.class)
+                                      .flatMap(entity -> Arrays.stream(entity.getAnnotation(Table.class).indexes()))
+                                      .map(index -> index.name() + " " + index.columnList())
+                                      .collect(Collectors.toList());
+        
+        assertThat(advisor.proposals()).extracting(p -> p.getName() + " " + p.getColumnList())
+                                       .containsExactlyInAnyOrderElementsOf(declared);
+    }
+    
+    private MemberSearchCondition condition(int shape) {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUserName((shape & 1) != 0 ? "member1" : null);
+        condition.setTeamName((shape & 2) != 0 ? "teamA" : null);
+        condition.setAgeGoe((shape & 4) != 0 ? 10 : null);
+        condition.setAgeLoe((shape & 8) != 0 ? 40 : null);
+        return condition;
+    }
+}
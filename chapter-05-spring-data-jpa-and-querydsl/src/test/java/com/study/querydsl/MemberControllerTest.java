@@ -0,0 +1,106 @@
+package com.study.querydsl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.study.querydsl.domain.Member;
+import com.study.querydsl.domain.Team;
+import com.study.querydsl.repository.MemberRepository;
+import com.study.querydsl.repository.TeamRepository;
+
+/**
+ * /v1/members/stream 은 응답을 별도 스레드의 트랜잭션에서 쓰므로
+ * 테스트 데이터를 커밋해야 보인다 (@Transactional 사용 안 함 - 테스트 후 직접 삭제)
+ */
+@ActiveProfiles("test")
+@SpringBootTest
+@AutoConfigureMockMvc
+class MemberControllerTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    TeamRepository teamRepository;
+
+    Team team;
+    List<Member> members = new ArrayList<>();
+
+    @BeforeEach
+    void before() {
+        team = teamRepository.save(new Team("streamTeam"));
+        for (int i = 0; i < 3; i++) {
+            members.add(memberRepository.save(new Member("streamMember" + i, 10 * (i + 1), team)));
+        }
+    }
+
+    @AfterEach
+    void after() {
+        memberRepository.deleteAll(members);
+        teamRepository.deleteById(team.getId());
+    }
+
+    @Test
+    void streamMembersAsNdjson() throws Exception {
+        MvcResult started = mockMvc.perform(get("/v1/members/stream")
+                                               .param("teamName", "streamTeam")
+                                               .param("ageGoe", "20"))
+                                   .andExpect(request().asyncStarted())
+                                   .andReturn();
+
+        MvcResult result = mockMvc.perform(asyncDispatch(started))
+                                  .andExpect(status().isOk())
+                                  .andExpect(content().contentType("application/x-ndjson"))
+                                  .andReturn();
+
+        String body = result.getResponse().getContentAsString();
+        assertThat(body).endsWith("\n");
+
+        List<String> userNames = new ArrayList<>();
+        for (String line : body.split("\n")) {
+            JsonNode row = objectMapper.readTree(line);
+            assertThat(row.get("teamName").asText()).isEqualTo("streamTeam");
+            userNames.add(row.get("userName").asText());
+        }
+        assertThat(userNames).containsExactlyInAnyOrder("streamMember1", "streamMember2");
+    }
+
+    @Test
+    void streamNoMembers() throws Exception {
+        MvcResult started = mockMvc.perform(get("/v1/members/stream")
+                                               .param("teamName", "streamTeam")
+                                               .param("ageGoe", "100"))
+                                   .andExpect(request().asyncStarted())
+                                   .andReturn();
+
+        mockMvc.perform(asyncDispatch(started))
+               .andExpect(status().isOk())
+               .andExpect(content().contentType("application/x-ndjson"))
+               .andExpect(content().string(""));
+    }
+}
@@ -0,0 +1,105 @@
+package com.study.querydsl;
+
+import static com.study.querydsl.domain.QMember.member;
+import static com.study.querydsl.domain.QTeam.team;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.stream.IntStream;
+
+import javax.persistence.EntityManager;
+import javax.transaction.Transactional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.study.querydsl.domain.Member;
+import com.study.querydsl.domain.Team;
+import com.study.querydsl.dto.MemberSearchCondition;
+import com.study.querydsl.repository.MemberCountQuery;
+
+@ActiveProfiles("test")
+@SpringBootTest
+@Transactional
+class MemberCountQueryTest {
+
+    @Autowired
+    EntityManager em;
+    
+    JPAQueryFactory queryFactory;
+    
+    @BeforeEach
+    void before() {
+        queryFactory = new JPAQueryFactory(em);
+        
+        //given
+        Team team1 = new Team("team1");
+        Team team2 = new Team("team2");
+        em.persist(team1);
+        em.persist(team2);
+        
+        em.persist(new Member("member1", 10, team1));
+        em.persist(new Member("member2", 20, team1));
+        em.persist(new Member("member3", 30, team2));
+        em.persist(new Member("member4", 40, team2));
+        em.persist(new Member("member5", 50, null));
+        em.flush();
+        em.clear();
+    }
+    
+    /**
+     * userName, teamName, ageGoe, ageLoe 조건의 모든 조합(16가지)
+     */
+    static IntStream conditionShapes() {
+        return IntStream.range(0, 16);
+    }
+    
+    static MemberSearchCondition condition(int shape) {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        if ((shape & 1) != 0) condition.setUserName("member3");
+        if ((shape & 2) != 0) condition.setTeamName("team2");
+        if ((shape & 4) != 0) condition.setAgeGoe(20);
+        if ((shape & 8) != 0) condition.setAgeLoe(40);
+        return condition;
+    }
+    
+    @ParameterizedTest
+    @MethodSource("conditionShapes")
+    void countJpqlJoinsTeamOnlyWhenNeeded(int shape) {
+        MemberSearchCondition condition = condition(shape);
+        
+        String jpql = MemberCountQuery.of(queryFactory, condition).toString();
+        
+        assertThat(jpql).startsWith("select member1.id\nfrom Member member1");
+        assertThat(jpql.contains("left join member1.team as team")).isEqualTo(condition.getTeamName() != null);
+        assertThat(jpql.contains("member1.userName = ")).isEqualTo(condition.getUserName() != null);
+        assertThat(jpql.contains("team.name = ")).isEqualTo(condition.getTeamName() != null);
+        assertThat(jpql.contains("member1.age >= ")).isEqualTo(condition.getAgeGoe() != null);
+        assertThat(jpql.contains("member1.age <= ")).isEqualTo(condition.getAgeLoe() != null);
+        if (shape == 0) {
+            assertEquals("select member1.id\nfrom Member member1", jpql);
+        }
+    }
+    
+    @ParameterizedTest
+    @MethodSource("conditionShapes")
+    void countMatchesJoinedEntityCount(int shape) {
+        MemberSearchCondition condition = condition(shape);
+        
+        JPAQuery<Member> joined = queryFactory
+                .selectFrom(member)
+                .leftJoin(member.team, team)
+                .where(condition.getUserName() == null ? null : member.userName.eq(condition.getUserName()),
+                       condition.getTeamName() == null ? null : team.name.eq(condition.getTeamName()),
+                       condition.getAgeGoe() == null ? null : member.age.goe(condition.getAgeGoe()),
+                       condition.getAgeLoe() == null ? null : member.age.loe(condition.getAgeLoe()));
+        
+        assertEquals(joined.fetchCount(), MemberCountQuery.of(queryFactory, condition).fetchCount());
+    }
+}
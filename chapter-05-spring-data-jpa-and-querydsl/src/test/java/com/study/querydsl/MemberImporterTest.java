@@ -0,0 +1,116 @@
+package com.study.querydsl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import javax.persistence.EntityManager;
+import javax.transaction.Transactional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.study.querydsl.domain.Member;
+import com.study.querydsl.domain.Team;
+import com.study.querydsl.dto.MemberDTO;
+import com.study.querydsl.dto.MemberTeamDTO;
+import com.study.querydsl.repository.MemberImporter;
+
+@ActiveProfiles("test")
+@SpringBootTest(properties = "querydsl.import.batch-rows=100")
+@Transactional
+class MemberImporterTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    MemberImporter memberImporter;
+
+    @BeforeEach
+    void before() {
+        em.persist(new Team("teamA"));
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    void importMemberTeams() {
+        Stream<MemberTeamDTO> records = IntStream.range(0, 250)
+                                                 .mapToObj(i -> new MemberTeamDTO(null, "member" + i, i % 50, null,
+                                                                                  i % 2 == 0 ? "teamA" : "teamB"));
+
+        MemberImporter.Result result = memberImporter.importMemberTeams(records);
+
+        assertEquals(250L, result.getInserted());
+        assertEquals(1L, result.getTeamsCreated()); // teamB
+        assertEquals(3L, result.getStatements()); // 100 + 100 + 50
+        assertEquals(125L, em.createQuery("select count(m) from Member m where m.team.name = 'teamA'", Long.class).getSingleResult());
+        assertEquals(125L, em.createQuery("select count(m) from Member m where m.team.name = 'teamB'", Long.class).getSingleResult());
+
+        // 등록 후 em.persist도 같은 시퀀스를 사용하므로 id가 겹치지 않는다
+        Member member = new Member("member250", 10);
+        em.persist(member);
+        em.flush();
+        assertEquals(251L, em.createQuery("select count(m) from Member m", Long.class).getSingleResult());
+    }
+
+    @Test
+    void importMembersWithoutTeam() {
+        MemberImporter.Result result = memberImporter.importMembers(Stream.of(new MemberDTO("member1", 10),
+                                                                              new MemberDTO("member2", 20)));
+
+        assertEquals(2L, result.getInserted());
+        assertThat(em.createQuery("select m.userName from Member m where m.team is null", String.class).getResultList())
+            .containsExactlyInAnyOrder("member1", "member2");
+    }
+
+    @Test
+    void mergeExistingMembers() {
+        Team teamA = em.createQuery("select t from Team t where t.name = 'teamA'", Team.class).getSingleResult();
+        Member member1 = new Member("member1", 10, teamA);
+        Member member2 = new Member("member2", 20, null);
+        em.persist(member1);
+        em.persist(member2);
+        em.flush();
+
+        MemberImporter.Result result = memberImporter.importMemberTeams(Stream.of(
+                new MemberTeamDTO(member1.getId(), "member1-renamed", 11, null, "teamB"),
+                new MemberTeamDTO(member2.getId(), "member2", 20, teamA.getId(), null)));
+
+        assertEquals(2L, result.getMerged());
+        assertThat(em.contains(member1)).isFalse(); // 영속성 컨텍스트에서 제외
+
+        Member merged = em.find(Member.class, member1.getId());
+        assertEquals("member1-renamed", merged.getUserName());
+        assertEquals(11, merged.getAge());
+        assertEquals("teamB", merged.getTeam().getName());
+
+        List<String> teamAMembers = em.createQuery("select m.userName from Member m where m.team.name = 'teamA'", String.class)
+                                      .getResultList();
+        assertThat(teamAMembers).containsExactly("member2");
+    }
+
+    @Test
+    void mergeUnknownIdIsRejected() {
+        Member member1 = new Member("member1", 10);
+        em.persist(member1);
+        em.flush();
+        Long unknownId = member1.getId() + 1; // 시퀀스가 다음에 발급할 id - insert 하면 충돌
+
+        assertThrows(IllegalArgumentException.class, () -> memberImporter.importMemberTeams(Stream.of(
+                new MemberTeamDTO(unknownId, "member2", 20, null, null))));
+
+        Member member2 = new Member("member2", 20);
+        em.persist(member2);
+        em.flush();
+        assertEquals(unknownId, member2.getId());
+    }
+}
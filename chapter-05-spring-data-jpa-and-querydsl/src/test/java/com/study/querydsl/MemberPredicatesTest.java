@@ -0,0 +1,105 @@
+package com.study.querydsl;
+
+import static com.study.querydsl.domain.QMember.member;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import javax.persistence.EntityManager;
+import javax.transaction.Transactional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.study.querydsl.domain.Member;
+import com.study.querydsl.domain.Team;
+import com.study.querydsl.dto.MemberSearchCondition;
+import com.study.querydsl.dto.MemberTeamDTO;
+import com.study.querydsl.repository.MemberPredicates;
+import com.study.querydsl.repository.MemberRepository;
+import com.study.querydsl.repository.support.QueryCounter;
+
+@ActiveProfiles("test")
+@SpringBootTest
+@Transactional
+class MemberPredicatesTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    QueryCounter queryCounter;
+
+    @BeforeEach
+    void before() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, null));
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    void emptyConditionHasNoPredicate() {
+        assertNull(MemberPredicates.of(new MemberSearchCondition()));
+    }
+
+    @Test
+    void ageConditionsAreMerged() {
+        assertEquals(member.age.eq(20), MemberPredicates.ageBetween(20, 20));
+        assertEquals(member.age.between(10, 20), MemberPredicates.ageBetween(10, 20));
+        assertEquals(member.age.goe(10), MemberPredicates.ageBetween(10, null));
+        assertEquals(member.age.loe(20), MemberPredicates.ageBetween(null, 20));
+        assertNull(MemberPredicates.ageBetween(null, null));
+    }
+
+    @Test
+    void cachedAgePredicatesAreReused() {
+        assertSame(MemberPredicates.ageGoe(30), MemberPredicates.ageGoe(30));
+        assertSame(MemberPredicates.ageBetween(30, 30), MemberPredicates.ageBetween(30, 30));
+        assertEquals(member.age.goe(200), MemberPredicates.ageGoe(200)); // 범위 밖은 새로 만든다
+    }
+
+    @Test
+    void contradictoryConditionSkipsQueries() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(30);
+        condition.setAgeLoe(10);
+        assertTrue(MemberPredicates.isContradictory(condition));
+        assertSame(MemberPredicates.EMPTY, MemberPredicates.of(condition));
+
+        try (QueryCounter.Scope scope = queryCounter.start("contradictoryConditionSkipsQueries")) {
+            Page<MemberTeamDTO> page = memberRepository.searchPageComplex(condition, PageRequest.of(0, 10));
+
+            assertThat(page.getContent()).isEmpty();
+            assertEquals(0, page.getTotalElements());
+            assertThat(memberRepository.searchByWhereClause(condition)).isEmpty();
+            assertEquals(0, scope.getCount());
+        }
+    }
+
+    @Test
+    void sharedPredicateMatchesSeparateQueries() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+        condition.setAgeGoe(20);
+        condition.setAgeLoe(20);
+
+        Page<MemberTeamDTO> page = memberRepository.searchPageComplex(condition, PageRequest.of(0, 10));
+
+        assertThat(page.getContent()).extracting("userName").containsExactly("member2");
+        assertEquals(1, page.getTotalElements());
+    }
+}
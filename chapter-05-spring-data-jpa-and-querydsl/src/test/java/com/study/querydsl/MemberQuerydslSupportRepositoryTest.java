@@ -21,6 +21,8 @@ import com.study.querydsl.domain.Team;
 import com.study.querydsl.dto.MemberSearchCondition;
 import com.study.querydsl.dto.MemberTeamDTO;
 import com.study.querydsl.repository.MemberQuerydslRepositorySupport;
+import com.study.querydsl.repository.MemberRepositoryUsingCustomSupport;
+import com.study.querydsl.repository.support.QueryCounter;
 
 @ActiveProfiles("test")
 @SpringBootTest
@@ -33,6 +35,12 @@ class MemberQuerydslSupportRepositoryTest {
     @Autowired
     MemberQuerydslRepositorySupport memberQuerydslSupportRepository;
     
+    @Autowired
+    MemberRepositoryUsingCustomSupport customSupportRepository;
+    
+    @Autowired
+    QueryCounter queryCounter;
+    
     @BeforeEach
     void before() {
         
@@ -94,4 +102,24 @@ class MemberQuerydslSupportRepositoryTest {
         
         assertEquals(3L, result.getTotalElements());
     }
+    
+    @Test
+    void contradictoryConditionSkipsQueries() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(60);
+        condition.setAgeLoe(30);
+        PageRequest pageable = PageRequest.of(1, 3);
+        
+        try (QueryCounter.Scope scope = queryCounter.start("contradictoryConditionSkipsQueries")) {
+            assertThat(memberQuerydslSupportRepository.search(condition)).isEmpty();
+            assertThat(memberQuerydslSupportRepository.searchPaging(condition, pageable)).isEmpty();
+            assertThat(customSupportRepository.searchPageByApplyPage(condition, pageable)).isEmpty();
+            assertThat(customSupportRepository.applyPagination(condition, pageable)).isEmpty();
+            assertThat(customSupportRepository.applyPagination2(condition, pageable)).isEmpty();
+            assertThat(customSupportRepository.applyPaginationParallel(condition, pageable)).isEmpty();
+            assertEquals(0L, customSupportRepository.applyPaginationWindow(condition, pageable).getTotalElements());
+            
+            assertEquals(0, scope.getCount());
+        }
+    }
 }
@@ -2,20 +2,27 @@ package com.study.querydsl;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import javax.persistence.EntityManager;
 import javax.transaction.Transactional;
 
 import com.study.querydsl.domain.Member;
 import com.study.querydsl.domain.Team;
+import com.study.querydsl.dto.MemberKeysetSlice;
 import com.study.querydsl.dto.MemberSearchCondition;
 import com.study.querydsl.dto.MemberTeamDTO;
 import com.study.querydsl.repository.MemberRepository;
+import com.study.querydsl.repository.support.QueryCounter;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.Page;
@@ -35,6 +42,9 @@ class MemberRepositoryTest {
     @Autowired
     MemberRepository memberRepository;
     
+    @Autowired
+    QueryCounter queryCounter;
+    
     @BeforeEach
     void before() {
         
@@ -158,4 +168,163 @@ class MemberRepositoryTest {
         
         assertEquals(3L, result.getTotalElements());
     }
+
+    @Test
+    void searchPageBySortTeamName() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(30);
+        condition.setAgeLoe(50);
+
+        Page<MemberTeamDTO> result = memberRepository.searchPageBySort(condition, PageRequest.of(0, 2, Sort.by(Direction.DESC, "team.name")));
+
+        // team.name이 같으면 member.id 오름차순
+        assertThat(result.getContent()).extracting("userName")
+                                       .containsExactly("member4", "member5");
+        assertEquals(3L, result.getTotalElements());
+    }
+
+    @Test
+    void searchPageBySortUnknownProperty() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+
+        assertThrows(IllegalArgumentException.class,
+                () -> memberRepository.searchPageBySort(condition, PageRequest.of(0, 3, Sort.by("team.id"))));
+    }
+
+    @Test
+    void searchSliceByKeyset() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(20);
+        
+        MemberKeysetSlice first = memberRepository.searchSliceByKeyset(condition, null, 4);
+        
+        assertThat(first.isHasNext()).isTrue();
+        assertThat(first.getContent()).extracting("userName")
+                                      .containsExactly("member2", "member3", "member4", "member5");
+        
+        MemberKeysetSlice second = memberRepository.searchSliceByKeyset(condition, first.getNextCursor(), 4);
+        
+        assertThat(second.isHasNext()).isFalse();
+        assertThat(second.getNextCursor()).isNull();
+        assertThat(second.getContent()).extracting("userName")
+                                       .containsExactly("member6", "member7");
+    }
+    
+    @Test
+    void searchSliceByKeysetCursorForOtherCondition() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(20);
+        MemberKeysetSlice first = memberRepository.searchSliceByKeyset(condition, null, 4);
+        
+        MemberSearchCondition other = new MemberSearchCondition();
+        other.setTeamName("team1");
+        
+        assertThrows(IllegalArgumentException.class,
+                () -> memberRepository.searchSliceByKeyset(other, first.getNextCursor(), 4));
+    }
+    
+    @ParameterizedTest
+    @ValueSource(ints = {0, -1, MemberKeysetSlice.MAX_SIZE + 1, Integer.MAX_VALUE})
+    void searchSliceByKeysetInvalidSize(int size) {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        
+        assertThrows(IllegalArgumentException.class,
+                () -> memberRepository.searchSliceByKeyset(condition, null, size));
+    }
+    
+    @Test
+    void searchSliceByKeysetMaxSize() {
+        MemberKeysetSlice slice = memberRepository.searchSliceByKeyset(new MemberSearchCondition(), null, MemberKeysetSlice.MAX_SIZE);
+        
+        assertThat(slice.isHasNext()).isFalse();
+        assertThat(slice.getContent()).hasSize(7);
+    }
+    
+    @Test
+    void searchOptimalCountCacheEvictedOnWrite() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("team2");
+        
+        Page<MemberTeamDTO> before = memberRepository.searchPageOptimal(condition, PageRequest.of(0, 2));
+        assertEquals(4L, before.getTotalElements());
+        
+        Team team2 = em.createQuery("select t from Team t where t.name = 'team2'", Team.class).getSingleResult();
+        em.persist(new Member("member8", 80, team2));
+        em.flush();
+        
+        Page<MemberTeamDTO> after = memberRepository.searchPageOptimal(condition, PageRequest.of(0, 2));
+        assertEquals(5L, after.getTotalElements());
+    }
+    
+    @Test
+    void streamByWhereClause() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(30);
+        condition.setAgeLoe(60);
+        condition.setTeamName("team2");
+        
+        List<MemberTeamDTO> collect;
+        try (Stream<MemberTeamDTO> stream = memberRepository.streamByWhereClause(condition, 2)) {
+            collect = stream.collect(Collectors.toList());
+        }
+        
+        assertThat(collect).extracting("userName")
+                           .containsExactlyInAnyOrder("member4", "member5", "member6");
+    }
+    
+    @Test
+    void changeTeamInBulk() {
+        Team team1 = em.createQuery("select t from Team t where t.name = 'team1'", Team.class).getSingleResult();
+        Team team3 = em.createQuery("select t from Team t where t.name = 'team3'", Team.class).getSingleResult();
+        assertThat(team3.getMembers()).isEmpty(); // team3 컬렉션 로딩
+        
+        Member member1 = memberRepository.findByUserName("member1").get(0); // 영속성 컨텍스트에 있는 회원
+        List<Long> memberIds = em.createQuery("select m.id from Member m where m.userName in ('member1', 'member2', 'member4')", Long.class)
+                                 .getResultList();
+        
+        long changed = memberRepository.changeTeam(memberIds, team3.getId());
+        
+        assertEquals(3L, changed);
+        assertThat(member1.getTeam()).isSameAs(team3);
+        assertThat(team1.isMembersLoaded()).isFalse(); // 이전 팀 컬렉션은 로딩하지 않는다
+        assertThat(team3.getMembers()).extracting("userName")
+                                      .containsExactlyInAnyOrder("member1", "member2", "member4");
+        
+        em.flush();
+        em.clear();
+        
+        assertThat(em.createQuery("select m.userName from Member m where m.team.name = 'team3'", String.class).getResultList())
+            .containsExactlyInAnyOrder("member1", "member2", "member4");
+        assertThat(em.createQuery("select m.userName from Member m where m.team.name = 'team1'", String.class).getResultList())
+            .containsExactly("member3");
+    }
+    
+    @Test
+    void preloadTeams() {
+        List<Member> members = memberRepository.findAll();
+        
+        assertEquals(2, memberRepository.preloadTeams(members)); // team1, team2 (team3은 회원 없음)
+        
+        try (QueryCounter.Scope scope = queryCounter.start("preloadTeams")) {
+            assertThat(members).extracting(m -> m.getTeam().getName())
+                               .containsOnly("team1", "team2");
+            assertEquals(0, scope.getCount());
+        }
+        assertEquals(0, memberRepository.preloadTeams(members)); // 이미 초기화된 프록시는 제외
+    }
+    
+    @Test
+    void changeTeamBeforePersist() {
+        Team team4 = new Team("team4"); // 새 팀 - members 컬렉션이 로딩된 상태
+        em.persist(team4);
+        Member member5 = new Member("member5", 50);
+        
+        member5.changeTeam(team4); // 저장 전 회원 - 컬렉션에는 넣지 않는다
+        em.persist(member5);
+        em.flush();
+        em.clear();
+        
+        Team found = em.find(Team.class, team4.getId());
+        assertThat(found.getMembers()).extracting("userName").containsExactly("member5");
+    }
 }
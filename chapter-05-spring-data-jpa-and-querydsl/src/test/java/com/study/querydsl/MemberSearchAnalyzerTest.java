@@ -0,0 +1,152 @@
+package com.study.querydsl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.concurrent.CompletableFuture;
+
+import javax.persistence.EntityManager;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.study.querydsl.domain.Member;
+import com.study.querydsl.domain.Team;
+import com.study.querydsl.dto.MemberSearchCondition;
+import com.study.querydsl.dto.MemberTeamDTO;
+import com.study.querydsl.repository.MemberRepository;
+import com.study.querydsl.repository.MemberSearchAnalyzer;
+import com.study.querydsl.repository.MemberSearchAnalyzer.Verdict;
+import com.study.querydsl.repository.support.QueryCounter;
+import com.study.querydsl.repository.support.TeamNameCache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * 팀 이름 캐시는 팀을 변경한 트랜잭션 안에서는 사용하지 않으므로 커밋된 데이터로 테스트한다 (@Transactional 사용하지 않음)
+ */
+@ActiveProfiles("test")
+@SpringBootTest
+class MemberSearchAnalyzerTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    MemberSearchAnalyzer searchAnalyzer;
+
+    @Autowired
+    QueryCounter queryCounter;
+
+    @Autowired
+    MeterRegistry registry;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    TeamNameCache teamNameCache;
+
+    @BeforeEach
+    void before() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Team teamA = new Team("teamA");
+            em.persist(teamA);
+            em.persist(new Member("member1", 10, teamA));
+            em.persist(new Member("member2", 20, teamA));
+        });
+    }
+
+    @AfterEach
+    void after() {
+        transactionTemplate.executeWithoutResult(status -> {
+            em.createQuery("delete from Member").executeUpdate();
+            em.createQuery("delete from Team").executeUpdate();
+        });
+        teamNameCache.invalidate(); // 벌크 delete는 엔티티 리스너를 거치지 않는다
+    }
+
+    @Test
+    void analyze() {
+        assertEquals(Verdict.EXECUTE, searchAnalyzer.analyze(condition("teamA", null, null)));
+        assertEquals(Verdict.EXECUTE, searchAnalyzer.analyze(condition(null, 10, 10)));
+        assertEquals(Verdict.CONTRADICTORY, searchAnalyzer.analyze(condition("teamA", 20, 10)));
+        assertEquals(Verdict.UNKNOWN_TEAM, searchAnalyzer.analyze(condition("noSuchTeam", null, null)));
+    }
+
+    @Test
+    void unknownTeamSkipsQueries() {
+        MemberSearchCondition condition = condition("noSuchTeam", null, null);
+        searchAnalyzer.analyze(condition); // 팀 이름 캐시 로딩
+        double skippedBefore = skipped("MemberRepositoryImpl.searchPageComplex", Verdict.UNKNOWN_TEAM);
+
+        try (QueryCounter.Scope scope = queryCounter.start("unknownTeamSkipsQueries")) {
+            Page<MemberTeamDTO> page = memberRepository.searchPageComplex(condition, PageRequest.of(0, 10));
+
+            assertThat(page.getContent()).isEmpty();
+            assertEquals(0, page.getTotalElements());
+            assertEquals(0, scope.getCount());
+        }
+        assertEquals(skippedBefore + 1, skipped("MemberRepositoryImpl.searchPageComplex", Verdict.UNKNOWN_TEAM));
+    }
+
+    @Test
+    void newTeamIsFoundBeforeFlush() {
+        MemberSearchCondition condition = condition("teamB", null, null);
+        assertEquals(Verdict.UNKNOWN_TEAM, searchAnalyzer.analyze(condition));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Team teamB = new Team("teamB");
+            em.persist(teamB); // flush 전 - @PrePersist에서 팀 이름 캐시를 비운다
+            em.persist(new Member("member3", 30, teamB));
+
+            Page<MemberTeamDTO> page = memberRepository.searchPageComplex(condition, PageRequest.of(0, 10));
+
+            assertThat(page.getContent()).extracting("userName").containsExactly("member3");
+            status.setRollbackOnly();
+        });
+    }
+
+    @Test
+    void uncommittedTeamChangeIsNotShared() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Team teamA = em.createQuery("select t from Team t where t.name = 'teamA'", Team.class).getSingleResult();
+            teamA.setName("teamA-renamed");
+            em.flush(); // @PostUpdate - 트랜잭션이 끝날 때까지 이 트랜잭션에서는 팀 이름 캐시를 사용하지 않는다
+
+            assertEquals(Verdict.EXECUTE, searchAnalyzer.analyze(condition("teamA", null, null)));
+            // 다른 스레드(다른 요청)는 커밋된 teamA를 그대로 찾는다
+            Verdict other = CompletableFuture.supplyAsync(() -> searchAnalyzer.analyze(condition("teamA", null, null))).join();
+            assertEquals(Verdict.EXECUTE, other);
+            status.setRollbackOnly();
+        });
+        assertEquals(Verdict.EXECUTE, searchAnalyzer.analyze(condition("teamA", null, null)));
+    }
+
+    private static MemberSearchCondition condition(String teamName, Integer ageGoe, Integer ageLoe) {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName(teamName);
+        condition.setAgeGoe(ageGoe);
+        condition.setAgeLoe(ageLoe);
+        return condition;
+    }
+
+    private double skipped(String queryName, Verdict reason) {
+        Counter counter = registry.find("querydsl.query.skipped")
+                                  .tag("query", queryName)
+                                  .tag("reason", reason.name())
+                                  .counter();
+        return counter == null ? 0 : counter.count();
+    }
+}
@@ -0,0 +1,95 @@
+package com.study.querydsl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.transaction.Transactional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.study.querydsl.domain.Member;
+import com.study.querydsl.domain.Team;
+import com.study.querydsl.dto.MemberSearchCondition;
+import com.study.querydsl.dto.MemberTeamDTO;
+import com.study.querydsl.repository.MemberRepository;
+import com.study.querydsl.repository.MemberSearchQueryCache;
+
+@ActiveProfiles("test")
+@SpringBootTest
+@Transactional
+class MemberSearchQueryCacheTest {
+
+    @Autowired
+    EntityManager em;
+    
+    @Autowired
+    MemberRepository memberRepository;
+    
+    @Autowired
+    MemberSearchQueryCache searchQueryCache;
+    
+    @BeforeEach
+    void before() {
+        
+        //given
+        Team team1 = new Team("team1");
+        Team team2 = new Team("team2");
+        em.persist(team1);
+        em.persist(team2);
+        
+        em.persist(new Member("member1", 10, team1));
+        em.persist(new Member("member2", 20, team1));
+        em.persist(new Member("member3", 30, team2));
+        em.persist(new Member("member4", 40, team2));
+        em.persist(new Member("member5", 50, null));
+        em.flush();
+        em.clear();
+    }
+    
+    @Test
+    void sameShapeReusesCompiledQuery() {
+        MemberSearchCondition first = new MemberSearchCondition();
+        first.setTeamName("team1");
+        first.setAgeGoe(10);
+        
+        MemberSearchCondition second = new MemberSearchCondition();
+        second.setTeamName("team2");
+        second.setAgeGoe(40);
+        second.setUserName(" "); // 공백은 조건이 아니므로 같은 모양
+        
+        memberRepository.searchByWhereClause(first); // 다른 테스트에서 이미 컴파일 되었을 수 있음
+        long misses = searchQueryCache.getMissCount();
+        long hits = searchQueryCache.getHitCount();
+        
+        List<MemberTeamDTO> result = memberRepository.searchByWhereClause(second);
+        
+        assertThat(result).extracting("userName").containsExactly("member4");
+        assertEquals(misses, searchQueryCache.getMissCount());
+        assertEquals(hits + 1, searchQueryCache.getHitCount());
+    }
+    
+    @Test
+    void everyShapeMatchesBuilderSearch() {
+        for (int shape = 0; shape < 16; shape++) {
+            MemberSearchCondition condition = new MemberSearchCondition();
+            if ((shape & 1) != 0) condition.setUserName("member3");
+            if ((shape & 2) != 0) condition.setTeamName("team2");
+            if ((shape & 4) != 0) condition.setAgeGoe(20);
+            if ((shape & 8) != 0) condition.setAgeLoe(40);
+            
+            assertThat(memberRepository.searchByWhereClause(condition))
+                .as("shape %d", shape)
+                .usingFieldByFieldElementComparator()
+                .containsExactlyInAnyOrderElementsOf(memberRepository.searchByBuilder(condition));
+        }
+        
+        assertThat(searchQueryCache.size()).isEqualTo(16);
+    }
+}
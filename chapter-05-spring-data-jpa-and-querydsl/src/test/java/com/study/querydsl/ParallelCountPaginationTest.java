@@ -0,0 +1,162 @@
+package com.study.querydsl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManager;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.study.querydsl.domain.Member;
+import com.study.querydsl.domain.Team;
+import com.study.querydsl.dto.MemberSearchCondition;
+import com.study.querydsl.repository.MemberRepositoryUsingCustomSupport;
+import com.study.querydsl.repository.support.ParallelCountExecutor;
+
+/**
+ * count 쿼리는 별도 트랜잭션에서 실행되므로 커밋된 데이터로 테스트한다 (@Transactional 사용하지 않음)
+ */
+@ActiveProfiles("test")
+@SpringBootTest
+class ParallelCountPaginationTest {
+
+    static final int MEMBER_COUNT = 30;
+    
+    @Autowired
+    EntityManager em;
+    
+    @Autowired
+    TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    MemberRepositoryUsingCustomSupport repository;
+    
+    @Autowired
+    ParallelCountExecutor parallelCountExecutor;
+    
+    @BeforeEach
+    void before() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Team team1 = new Team("team1");
+            Team team2 = new Team("team2");
+            em.persist(team1);
+            em.persist(team2);
+            for (int i = 0; i < MEMBER_COUNT; i++) {
+                em.persist(new Member("member" + i, i, i % 2 == 0 ? team1 : team2));
+            }
+        });
+    }
+    
+    @AfterEach
+    void after() {
+        transactionTemplate.executeWithoutResult(status -> {
+            em.createQuery("delete from Member").executeUpdate();
+            em.createQuery("delete from Team").executeUpdate();
+        });
+    }
+    
+    @Test
+    void parallelCountMatchesTotal() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("team1");
+        condition.setAgeGoe(4);
+        
+        Page<Member> page = repository.applyPaginationParallel(condition, PageRequest.of(1, 3));
+        
+        assertThat(page.getTotalElements()).isEqualTo(13L); // 4, 6, ... 28
+        assertThat(page.getContent()).hasSize(3);
+    }
+    
+    @Test
+    void concurrentRequestsGetTheirOwnCounts() throws Exception {
+        ExecutorService clients = Executors.newFixedThreadPool(8);
+        try {
+            List<Callable<Void>> requests = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                int ageGoe = i % MEMBER_COUNT;
+                int page = i % 3;
+                requests.add(() -> {
+                    MemberSearchCondition condition = new MemberSearchCondition();
+                    condition.setAgeGoe(ageGoe);
+                    
+                    Page<Member> result = repository.applyPaginationParallel(condition, PageRequest.of(page, 2));
+                    
+                    long expectedTotal = MEMBER_COUNT - ageGoe;
+                    assertThat(result.getTotalElements()).isEqualTo(expectedTotal);
+                    assertThat(result.getContent().stream().map(Member::getAge).collect(Collectors.toList()))
+                        .allMatch(age -> age >= ageGoe);
+                    return null;
+                });
+            }
+            
+            for (Future<Void> future : clients.invokeAll(requests)) {
+                future.get(); // assert 실패시 ExecutionException
+            }
+        } finally {
+            clients.shutdownNow();
+        }
+    }
+    
+    @Test
+    void saturatedPoolCountsOnCallerThread() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<Long>> blockers = new ArrayList<>();
+        try {
+            Future<Long> blocker;
+            while ((blocker = parallelCountExecutor.submit(() -> awaitRelease(release))) != null) {
+                blockers.add(blocker); // count 스레드와 대기 큐를 모두 채운다
+            }
+            
+            MemberSearchCondition condition = new MemberSearchCondition();
+            condition.setTeamName("team1");
+            condition.setAgeGoe(4);
+            
+            Page<Member> page = repository.applyPaginationParallel(condition, PageRequest.of(1, 3));
+            
+            assertThat(page.getTotalElements()).isEqualTo(13L);
+            assertThat(page.getContent()).hasSize(3);
+        } finally {
+            release.countDown();
+        }
+        for (Future<Long> blocker : blockers) {
+            blocker.get();
+        }
+    }
+    
+    @Test
+    void slowCountGivesUpAfterWaitTimeout() {
+        Future<Long> neverCompletes = new CompletableFuture<>();
+        
+        assertThrows(QueryTimeoutException.class, () -> parallelCountExecutor.await(neverCompletes));
+        
+        assertThat(neverCompletes.isCancelled()).isTrue();
+    }
+    
+    private static long awaitRelease(CountDownLatch release) {
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return 0L;
+    }
+}
@@ -0,0 +1,61 @@
+package com.study.querydsl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Map;
+
+import javax.persistence.EntityManager;
+import javax.sql.DataSource;
+import javax.transaction.Transactional;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.github.gavlyukovskiy.boot.jdbc.decorator.DecoratedDataSource;
+import com.study.querydsl.domain.Team;
+import com.study.querydsl.repository.support.HibernateStatisticsEndpoint;
+
+@ActiveProfiles({"test", "prod"})
+@SpringBootTest(properties = "spring.jpa.hibernate.ddl-auto=create") //prod는 ddl-auto: none - 테스트 DB(메모리)에는 스키마를 만든다
+@Transactional
+class ProdProfileTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    DataSource dataSource;
+
+    @Autowired
+    HibernateStatisticsEndpoint hibernateStatisticsEndpoint;
+
+    @Test
+    void p6spyDisabled() {
+        assertThat(dataSource).isNotInstanceOf(DecoratedDataSource.class);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void hibernateStatistics() {
+        hibernateStatisticsEndpoint.reset();
+
+        Team team = new Team("teamA");
+        em.persist(team);
+        em.flush();
+        em.clear();
+        em.createQuery("select t from Team t where t.name = 'teamA'", Team.class).getResultList();
+
+        Map<String, Object> statistics = hibernateStatisticsEndpoint.statistics();
+
+        assertEquals(true, statistics.get("enabled"));
+        Map<String, Object> queries = (Map<String, Object>) statistics.get("queries");
+        assertEquals(1L, queries.get("executions"));
+        assertThat((String) queries.get("executionMaxTimeQuery")).contains("Team");
+        Map<String, Object> entities = (Map<String, Object>) statistics.get("entities");
+        assertEquals(1L, entities.get("loads"));
+        assertThat(statistics).containsKeys("secondLevelCache", "queryCache", "cacheRegions");
+    }
+}
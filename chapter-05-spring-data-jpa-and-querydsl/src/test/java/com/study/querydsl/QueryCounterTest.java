@@ -0,0 +1,129 @@
+package com.study.querydsl;
+
+import static com.study.querydsl.domain.QMember.member;
+import static com.study.querydsl.domain.QTeam.team;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.transaction.Transactional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.study.querydsl.domain.Member;
+import com.study.querydsl.domain.Team;
+import com.study.querydsl.repository.support.QueryCounter;
+
+@ActiveProfiles("test")
+@SpringBootTest
+@Transactional
+class QueryCounterTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    QueryCounter queryCounter;
+
+    JPAQueryFactory queryFactory;
+
+    @BeforeEach
+    void before() {
+        queryFactory = new JPAQueryFactory(em);
+        for (int i = 0; i < 5; i++) {
+            Team team = new Team("team" + i);
+            em.persist(team);
+            em.persist(new Member("member" + i, i * 10, team));
+        }
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    void repeatedStatementIsReported() {
+        List<Long> memberIds = queryFactory.select(member.id).from(member).fetch();
+        em.clear();
+
+        try (QueryCounter.Scope scope = queryCounter.start("repeatedStatementIsReported")) {
+            for (Long memberId : memberIds) {
+                em.find(Member.class, memberId); // 한 건씩 조회 - 같은 select가 5번
+            }
+
+            assertEquals(5, scope.getCount());
+            assertEquals(1, scope.getRepeated());
+        }
+    }
+
+    @Test
+    void fetchJoinRunsOneStatement() {
+        try (QueryCounter.Scope scope = queryCounter.start("fetchJoinRunsOneStatement")) {
+            List<Member> members = queryFactory.selectFrom(member)
+                                               .join(member.team, team).fetchJoin()
+                                               .fetch();
+            members.forEach(m -> m.getTeam().getName());
+
+            assertEquals(1, scope.getCount());
+            assertEquals(0, scope.getRepeated());
+        }
+    }
+
+    @Test
+    void lazyTeamAccessStaysBounded() {
+        try (QueryCounter.Scope scope = queryCounter.start("lazyTeamAccessStaysBounded")) {
+            List<Member> members = queryFactory.selectFrom(member).fetch();
+            members.forEach(m -> m.getTeam().getName()); // 지연 로딩 - 배치 페치로 한 번에 초기화
+
+            assertThat(scope.getCount()).isLessThanOrEqualTo(2);
+            assertEquals(0, scope.getRepeated());
+        }
+    }
+
+    @Test
+    void teamMembersAreBatchFetched() {
+        try (QueryCounter.Scope scope = queryCounter.start("teamMembersAreBatchFetched")) {
+            List<Team> teams = queryFactory.selectFrom(team).fetch();
+            teams.forEach(t -> t.getMembers().size()); // 첫 컬렉션 초기화시 나머지 팀의 컬렉션도 함께 조회 (@BatchSize)
+
+            assertEquals(2, scope.getCount());
+        }
+    }
+
+    @Test
+    void nestedScopeCountsIntoOuterScope() {
+        try (QueryCounter.Scope outer = queryCounter.start("outer")) {
+            queryFactory.selectFrom(member).fetch();
+            try (QueryCounter.Scope inner = queryCounter.start("inner")) {
+                queryFactory.selectFrom(team).fetch();
+                assertEquals(1, inner.getCount());
+            }
+            queryFactory.selectFrom(member).fetch();
+
+            assertEquals(3, outer.getCount());
+        }
+    }
+
+    @Test
+    void closingOuterScopeUnwindsLeakedInnerScope() {
+        QueryCounter.Scope outer = queryCounter.start("outer");
+        QueryCounter.Scope leaked = queryCounter.start("leaked"); // 닫지 않음
+        outer.close();
+
+        queryFactory.selectFrom(member).fetch();
+        leaked.close(); // 이미 정리됨 - 아무것도 하지 않는다
+
+        assertEquals(0, leaked.getCount());
+        try (QueryCounter.Scope next = queryCounter.start("next")) {
+            queryFactory.selectFrom(member).fetch();
+            assertEquals(1, next.getCount());
+        }
+        assertEquals(0, leaked.getCount());
+        assertEquals(0, outer.getCount());
+    }
+}
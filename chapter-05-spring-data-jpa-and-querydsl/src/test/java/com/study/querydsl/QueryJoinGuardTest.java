@@ -0,0 +1,64 @@
+package com.study.querydsl;
+
+import static com.study.querydsl.domain.QMember.member;
+import static com.study.querydsl.domain.QTeam.team;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+
+import com.querydsl.jpa.impl.JPAQuery;
+import com.study.querydsl.domain.Member;
+import com.study.querydsl.domain.QMember;
+import com.study.querydsl.repository.support.QueryJoinGuard;
+
+class QueryJoinGuardTest {
+
+    @Test
+    void duplicateFromIsRejected() {
+        JPAQuery<Member> query = new JPAQuery<Member>()
+                .select(member)
+                .from(member)
+                .leftJoin(member.team, team)
+                .from(member)
+                .leftJoin(member.team, team);
+        
+        assertThatThrownBy(() -> QueryJoinGuard.verify(query))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("member1");
+    }
+    
+    @Test
+    void duplicateJoinAliasIsRejected() {
+        JPAQuery<Member> query = new JPAQuery<Member>()
+                .select(member)
+                .from(member)
+                .leftJoin(member.team, team)
+                .leftJoin(member.team, team);
+        
+        assertThatThrownBy(() -> QueryJoinGuard.verify(query))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("team");
+    }
+    
+    @Test
+    void singleJoinPasses() {
+        JPAQuery<Member> query = new JPAQuery<Member>()
+                .select(member)
+                .from(member)
+                .leftJoin(member.team, team);
+        
+        assertThatCode(() -> QueryJoinGuard.verify(query)).doesNotThrowAnyException();
+    }
+    
+    @Test
+    void thetaJoinAndSelfJoinWithOtherAliasPass() {
+        QMember subMember = new QMember("subMember");
+        JPAQuery<Member> query = new JPAQuery<Member>()
+                .select(member)
+                .from(member, team, subMember)
+                .where(member.userName.eq(team.name), member.age.lt(subMember.age));
+        
+        assertThatCode(() -> QueryJoinGuard.verify(query)).doesNotThrowAnyException();
+    }
+}
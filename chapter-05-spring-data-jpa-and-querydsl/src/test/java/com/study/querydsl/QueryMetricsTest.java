@@ -0,0 +1,74 @@
+package com.study.querydsl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import javax.persistence.EntityManager;
+import javax.transaction.Transactional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.study.querydsl.domain.Member;
+import com.study.querydsl.domain.Team;
+import com.study.querydsl.dto.MemberSearchCondition;
+import com.study.querydsl.repository.MemberRepository;
+import com.study.querydsl.repository.support.QueryMetrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+@ActiveProfiles("test")
+@SpringBootTest
+@Transactional
+class QueryMetricsTest {
+
+    @Autowired
+    EntityManager em;
+    
+    @Autowired
+    MemberRepository memberRepository;
+    
+    @Autowired
+    MeterRegistry registry;
+    
+    @BeforeEach
+    void before() {
+        Team team1 = new Team("team1");
+        em.persist(team1);
+        for (int i = 0; i < 5; i++) {
+            em.persist(new Member("member" + i, 10 * i, team1));
+        }
+        em.flush();
+        em.clear();
+    }
+    
+    @Test
+    void contentAndCountAreTimedSeparately() {
+        long contentBefore = count("MemberRepositoryImpl.searchPageComplex", QueryMetrics.CONTENT);
+        long countBefore = count("MemberRepositoryImpl.searchPageComplex", QueryMetrics.COUNT);
+        
+        memberRepository.searchPageComplex(new MemberSearchCondition(), PageRequest.of(0, 2));
+        
+        assertThat(count("MemberRepositoryImpl.searchPageComplex", QueryMetrics.CONTENT)).isEqualTo(contentBefore + 1);
+        assertThat(count("MemberRepositoryImpl.searchPageComplex", QueryMetrics.COUNT)).isEqualTo(countBefore + 1);
+        
+        DistributionSummary rows = registry.find("querydsl.query.rows")
+                                           .tag("query", "MemberRepositoryImpl.searchPageComplex")
+                                           .summary();
+        assertThat(rows).isNotNull();
+        assertThat(rows.max()).isGreaterThanOrEqualTo(2);
+    }
+    
+    private long count(String queryName, String type) {
+        Timer timer = registry.find("querydsl.query")
+                              .tag("query", queryName)
+                              .tag("type", type)
+                              .timer();
+        return timer == null ? 0 : timer.count();
+    }
+}
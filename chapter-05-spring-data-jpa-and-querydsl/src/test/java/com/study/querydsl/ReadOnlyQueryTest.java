@@ -0,0 +1,79 @@
+package com.study.querydsl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.transaction.Transactional;
+
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.study.querydsl.domain.Member;
+import com.study.querydsl.domain.Team;
+import com.study.querydsl.dto.MemberSearchCondition;
+import com.study.querydsl.dto.MemberTeamDTO;
+import com.study.querydsl.repository.MemberRepositoryUsingCustomSupport;
+
+@ActiveProfiles("test")
+@SpringBootTest
+@Transactional
+class ReadOnlyQueryTest {
+
+    @Autowired
+    EntityManager em;
+    
+    @Autowired
+    MemberRepositoryUsingCustomSupport repository;
+    
+    @BeforeEach
+    void before() {
+        Team team1 = new Team("team1");
+        Team team2 = new Team("team2");
+        em.persist(team1);
+        em.persist(team2);
+        
+        for (int i = 0; i < 20; i++) {
+            em.persist(new Member("member" + i, i, i % 2 == 0 ? team1 : team2));
+        }
+        em.flush();
+        em.clear();
+    }
+    
+    @Test
+    void readOnlyEntitiesAreNotDirtyChecked() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUserName("member1");
+        
+        List<Member> result = repository.searchReadOnly(condition);
+        assertEquals(1, result.size());
+        
+        Member member = result.get(0);
+        member.setAge(100);
+        em.flush();
+        em.clear();
+        
+        assertEquals(1, em.find(Member.class, member.getId()).getAge());
+    }
+    
+    @Test
+    void statelessScanDoesNotGrowPersistenceContext() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("team1");
+        
+        List<MemberTeamDTO> scanned = new ArrayList<>();
+        long count = repository.scan(condition, 5, scanned::add);
+        
+        assertEquals(10L, count);
+        assertThat(scanned).extracting("teamName").containsOnly("team1");
+        assertThat(scanned).extracting("age").containsExactly(0, 2, 4, 6, 8, 10, 12, 14, 16, 18);
+        assertEquals(0, em.unwrap(Session.class).getStatistics().getEntityCount());
+    }
+}
@@ -0,0 +1,100 @@
+package com.study.querydsl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.study.querydsl.domain.Member;
+import com.study.querydsl.domain.Team;
+import com.study.querydsl.repository.TeamRepository;
+
+/**
+ * 2차 캐시는 커밋된 데이터를 다른 세션(트랜잭션)에서 읽을 때 사용되므로 테스트 트랜잭션(@Transactional) 없이
+ * 트랜잭션마다 새 영속성 컨텍스트로 확인하고 데이터는 직접 지운다
+ */
+@ActiveProfiles("test")
+@SpringBootTest
+class TeamCacheTest {
+
+    @Autowired
+    EntityManager em;
+    
+    @Autowired
+    EntityManagerFactory emf;
+    
+    @Autowired
+    TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    TeamRepository teamRepository;
+    
+    Statistics statistics;
+    Long memberId;
+    
+    @BeforeEach
+    void before() {
+        memberId = transactionTemplate.execute(status -> {
+            Team teamA = new Team("teamA");
+            em.persist(teamA);
+            em.persist(new Team("teamB"));
+            Member member = new Member("member1", 10, teamA);
+            em.persist(member);
+            return member.getId();
+        });
+        emf.getCache().evictAll();
+        statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+    
+    @AfterEach
+    void after() {
+        transactionTemplate.executeWithoutResult(status -> {
+            em.createQuery("delete from Member").executeUpdate();
+            em.createQuery("delete from Team").executeUpdate();
+        });
+        emf.getCache().evictAll();
+    }
+    
+    @Test
+    void lazyTeamIsLoadedFromSecondLevelCache() {
+        String first = transactionTemplate.execute(status -> em.find(Member.class, memberId).getTeam().getName());
+        long queries = statistics.getPrepareStatementCount();
+        String second = transactionTemplate.execute(status -> em.find(Member.class, memberId).getTeam().getName());
+        
+        assertEquals("teamA", first);
+        assertEquals("teamA", second);
+        assertEquals(1L, statistics.getDomainDataRegionStatistics(Team.class.getName()).getHitCount());
+        assertEquals(1L, statistics.getPrepareStatementCount() - queries); // member만 조회
+    }
+    
+    @Test
+    void teamNameLookupUsesQueryCache() {
+        assertThat(teamRepository.findByName("teamB")).isPresent();
+        assertThat(teamRepository.findByName("teamB")).isPresent();
+        
+        assertEquals(1L, statistics.getQueryCacheMissCount());
+        assertEquals(1L, statistics.getQueryCacheHitCount());
+    }
+    
+    @Test
+    void teamNameLookupIsInvalidatedOnTeamChange() {
+        Team team = teamRepository.findByName("teamB").orElseThrow();
+        
+        transactionTemplate.executeWithoutResult(status -> em.find(Team.class, team.getId()).setName("teamC"));
+        
+        assertThat(teamRepository.findByName("teamB")).isEmpty();
+        assertThat(teamRepository.findByName("teamC")).isPresent();
+    }
+}
@@ -0,0 +1,115 @@
+package com.study.querydsl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.transaction.Transactional;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.study.querydsl.domain.Member;
+import com.study.querydsl.domain.Team;
+import com.study.querydsl.dto.MemberSearchCondition;
+import com.study.querydsl.dto.MemberTeamDTO;
+import com.study.querydsl.repository.MemberRepository;
+import com.study.querydsl.repository.MemberRepositoryUsingCustomSupport;
+
+@ActiveProfiles("test")
+@SpringBootTest
+@Transactional
+class WindowPaginationTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    EntityManagerFactory emf;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    MemberRepositoryUsingCustomSupport memberRepositoryUsingCustomSupport;
+
+    Statistics statistics;
+
+    @BeforeEach
+    void before() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        for (int i = 1; i <= 7; i++) {
+            em.persist(new Member("member" + i, i * 10, i <= 2 ? teamA : teamB));
+        }
+        em.flush();
+        em.clear();
+
+        statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void contentAndTotalInOneQuery() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamB");
+
+        Page<MemberTeamDTO> result = memberRepository.searchPageSimple(condition, PageRequest.of(1, 2));
+
+        assertThat(result.getContent()).extracting("userName")
+                                       .containsExactly("member5", "member6");
+        assertEquals(5L, result.getTotalElements());
+        assertEquals(3, result.getTotalPages());
+        assertEquals(1L, statistics.getPrepareStatementCount()); // count 쿼리 없음
+    }
+
+    @Test
+    void emptyFirstPageSkipsCount() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamC");
+
+        Page<MemberTeamDTO> result = memberRepository.searchPageSimple(condition, PageRequest.of(0, 2));
+
+        assertThat(result.getContent()).isEmpty();
+        assertEquals(0L, result.getTotalElements());
+        assertEquals(1L, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void pageOutOfRangeFallsBackToCount() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+
+        Page<MemberTeamDTO> result = memberRepository.searchPageSimple(condition, PageRequest.of(5, 2));
+
+        assertThat(result.getContent()).isEmpty();
+        assertEquals(2L, result.getTotalElements());
+        assertEquals(2L, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void applyWindowPaginationWithSort() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(20);
+
+        Page<MemberTeamDTO> result = memberRepositoryUsingCustomSupport.applyPaginationWindow(condition,
+                PageRequest.of(0, 3, Sort.by(Direction.DESC, "age")));
+
+        assertThat(result.getContent()).extracting("userName")
+                                       .containsExactly("member7", "member6", "member5");
+        assertEquals(6L, result.getTotalElements());
+        assertEquals(1L, statistics.getPrepareStatementCount());
+    }
+}